@@ -21,10 +21,6 @@ import static com.intellij.psi.search.GlobalSearchScope.projectScope;
 import static com.intellij.psi.search.searches.AnnotatedElementsSearch.searchPsiFields;
 import static com.intellij.psi.search.searches.AnnotatedElementsSearch.searchPsiParameters;
 
-import com.intellij.lang.properties.IProperty;
-import com.intellij.lang.properties.PropertiesImplUtil;
-import com.intellij.lang.properties.PropertiesUtil;
-import com.intellij.lang.properties.psi.PropertiesFile;
 import com.intellij.openapi.project.Project;
 import com.intellij.openapi.util.Key;
 import com.intellij.psi.JavaPsiFacade;
@@ -32,20 +28,24 @@ import com.intellij.psi.PsiAnnotation;
 import com.intellij.psi.PsiClass;
 import com.intellij.psi.PsiClassType;
 import com.intellij.psi.PsiElement;
-import com.intellij.psi.PsiFile;
-import com.intellij.psi.PsiMethod;
-import com.intellij.psi.PsiParameter;
+import com.intellij.psi.PsiManager;
 import com.intellij.psi.PsiType;
 import com.intellij.psi.search.GlobalSearchScope;
+import com.intellij.psi.util.PsiModificationTracker;
 import com.intellij.psi.util.PsiUtil;
 import org.jboss.errai.idea.plugin.databinding.model.BeanBindingMetaData;
+import org.jboss.errai.idea.plugin.databinding.model.BeanPropertyTable;
+import org.jboss.errai.idea.plugin.databinding.model.BeanPropertyTableCacheHolder;
 import org.jboss.errai.idea.plugin.databinding.model.BindabilityValidation;
 import org.jboss.errai.idea.plugin.databinding.model.BindingType;
 import org.jboss.errai.idea.plugin.databinding.model.BoundMetaData;
 import org.jboss.errai.idea.plugin.databinding.model.ConvertibilityMetaData;
 import org.jboss.errai.idea.plugin.databinding.model.PropertyInfo;
+import org.jboss.errai.idea.plugin.databinding.model.PropertyPathTrie;
 import org.jboss.errai.idea.plugin.util.AnnotationSearchResult;
+import org.jboss.errai.idea.plugin.util.CacheProvider;
 import org.jboss.errai.idea.plugin.util.DefaultPolicy;
+import org.jboss.errai.idea.plugin.util.ErraiAppProperties;
 import org.jboss.errai.idea.plugin.util.SuperTypeInfo;
 import org.jboss.errai.idea.plugin.util.Types;
 import org.jboss.errai.idea.plugin.util.Util;
@@ -66,8 +66,21 @@ public class DataBindUtil {
   private static final int CASE_OFFSET = ('z' - 'Z');
   private static final Key<BeanBindingMetaData> TEMPLATE_BINDING_META_DATA_KEY
       = Key.create("TEMPLATE_BINDING_META_DATA_KEY");
+  private static final Key<BeanPropertyTableCacheHolder> BEAN_PROPERTY_TABLES_KEY
+      = Key.create("BEAN_PROPERTY_TABLES_KEY");
 
   public static Map<String, PropertyInfo> getAllProperties(PsiClass boundClass, String propertySearchRoot) {
+    return getAllProperties(boundClass, propertySearchRoot, boundClass);
+  }
+
+  /**
+   * @param context
+   *     the element the properties are bound from, which determines the <tt>ErraiApp.properties</tt> files that
+   *     apply.
+   */
+  public static Map<String, PropertyInfo> getAllProperties(PsiClass boundClass,
+                                                           String propertySearchRoot,
+                                                           PsiElement context) {
     int idx = propertySearchRoot.lastIndexOf('.');
     if (idx == -1) {
       propertySearchRoot = null;
@@ -78,57 +91,29 @@ public class DataBindUtil {
 
     PsiClass cls = boundClass;
     if (propertySearchRoot != null) {
+      PropertyPathTrie.Node node = getPropertyPaths(boundClass).getRoot();
       for (String token : propertySearchRoot.split("\\.")) {
-        if (!typeIsBindable(cls)) {
+        if (!typeIsBindable(cls, context)) {
           cls = null;
           break;
         }
-        PsiClass result = getBeanPropertyType(cls, token.trim());
-        if (result == null) {
+        node = node.getChild(token.trim());
+        if (node == null || node.getType() == null) {
           cls = null;
           break;
         }
-        cls = result;
+        cls = node.getType();
       }
     }
 
-    Map<String, PropertyInfo> properties = new LinkedHashMap<String, PropertyInfo>();
-    Project project = boundClass.getProject();
-    final Map<String, PropertyInfo> propertyInfoMap = new LinkedHashMap<String, PropertyInfo>();
-    for (final PsiMethod method : cls.getAllMethods()) {
-      if (method.getModifierList().hasModifierProperty("public")) {
-        final PsiClass topLevelClass = PsiUtil.getTopLevelClass(method);
-        if (topLevelClass == null || topLevelClass.getQualifiedName().equals("java.lang.Object")) {
-          continue;
-        }
-
-        final String property = getPropertyFromAccessor(method.getName());
-
-        final PsiParameter[] parameters = method.getParameterList().getParameters();
-        if (parameters.length == 0
-            && (method.getName().equalsIgnoreCase("get" + property)) || method.getName().equalsIgnoreCase("is" + property)) {
-
-          PsiClass type = getPsiClassFromType(project, method.getReturnType());
-
-          final PropertyInfo info = getOrCreatePropertyInfo(propertyInfoMap, property);
-          info.setGetterElement(method);
-          if (info.getPropertyType() == null) {
-            info.setPropertyType(type);
-          }
-        }
-        else if (parameters.length == 1 && method.getName().equalsIgnoreCase("set" + property)) {
-          PsiClass type = getPsiClassFromType(project, parameters[0].getType());
-          final PropertyInfo info = getOrCreatePropertyInfo(propertyInfoMap, property);
-          info.setSetterElement(method);
-          if (info.getPropertyType() == null) {
-            info.setPropertyType(type);
-          }
-        }
-      }
+    final Map<String, PropertyInfo> properties = new LinkedHashMap<String, PropertyInfo>();
+    if (cls == null) {
+      return properties;
     }
+
     final String prefix = propertySearchRoot != null ? propertySearchRoot + "." : "";
-    for (Map.Entry<String, PropertyInfo> entry : propertyInfoMap.entrySet()) {
-      properties.put(prefix + entry.getKey(), entry.getValue());
+    for (Map.Entry<String, PropertyInfo> entry : getBeanPropertyTable(cls).getProperties().entrySet()) {
+      properties.put(prefix + entry.getKey(), entry.getValue().copy());
     }
     return properties;
   }
@@ -153,21 +138,25 @@ public class DataBindUtil {
     return new BoundMetaData(Util.getImmediateOwnerElement(element));
   }
 
+  /**
+   * Returns the data binding metadata of the top-level class containing the specified element. The metadata is
+   * cached on the class until it, the Java structure of the project, the project roots or the
+   * <tt>ErraiApp.properties</tt> files change.
+   */
   public static BeanBindingMetaData getDataBindingMetaData(final PsiElement element) {
-    return new BeanBindingMetaData(PsiUtil.getTopLevelClass(element));
-
-//    return Util.getOrCreateCache(TEMPLATE_BINDING_META_DATA_KEY, element, new CacheProvider<BeanBindingMetaData>() {
-//      @Override
-//      public BeanBindingMetaData provide() {
-//        final PsiClass topLevelClass = PsiUtil.getTopLevelClass(element);
-//        return new BeanBindingMetaData(topLevelClass);
-//      }
-//
-//      @Override
-//      public boolean isCacheValid(BeanBindingMetaData beanBindingMetaData) {
-//        return beanBindingMetaData.isCacheValid();
-//      }
-//    });
+    final PsiClass topLevelClass = PsiUtil.getTopLevelClass(element);
+
+    return Util.getOrCreateCache(TEMPLATE_BINDING_META_DATA_KEY, element, new CacheProvider<BeanBindingMetaData>() {
+      @Override
+      public BeanBindingMetaData provide() {
+        return new BeanBindingMetaData(topLevelClass);
+      }
+
+      @Override
+      public boolean isCacheValid(BeanBindingMetaData beanBindingMetaData) {
+        return beanBindingMetaData.getTemplateClass() == topLevelClass && beanBindingMetaData.isCacheValid();
+      }
+    });
   }
 
   public static PsiClass getBeanPropertyType(PsiClass type, String property) {
@@ -184,24 +173,36 @@ public class DataBindUtil {
   public static PropertyInfo getBeanPropertyInfo(PsiClass type, String property) {
     if (type == null) return null;
 
-    final String getMethod = "get" + property;
-    final String isMethod = "is" + property;
-
-    for (PsiMethod method : type.getAllMethods()) {
-      if (method.getModifierList().hasModifierProperty("public")) {
-        if ((getMethod.equalsIgnoreCase(method.getName()) || isMethod.equalsIgnoreCase(method.getName()))
-            && method.getParameterList().getParameters().length == 0) {
+    return getBeanPropertyTable(type).getProperty(property);
+  }
 
-          PropertyInfo propertyInfo = new PropertyInfo();
-          propertyInfo.setGetterElement(method);
-          propertyInfo.setPropertyName(property);
-          propertyInfo.setPropertyType(getPsiClassFromType(type.getProject(), method.getReturnType()));
+  /**
+   * Returns the {@link BeanPropertyTable} of the specified class, which is cached until the class or the Java
+   * structure of the project changes.
+   */
+  public static BeanPropertyTable getBeanPropertyTable(final PsiClass type) {
+    final PsiModificationTracker tracker = PsiManager.getInstance(type.getProject()).getModificationTracker();
+
+    return Util.getOrCreateCache(BEAN_PROPERTY_TABLES_KEY, type, new CacheProvider<BeanPropertyTableCacheHolder>() {
+      @Override
+      public BeanPropertyTableCacheHolder provide() {
+        return new BeanPropertyTableCacheHolder(Util.getLastUpdate(type), tracker.getJavaStructureModificationCount());
+      }
 
-          return propertyInfo;
-        }
+      @Override
+      public boolean isCacheValid(BeanPropertyTableCacheHolder holder) {
+        return holder.getTime() == Util.getLastUpdate(type)
+            && holder.getStructureModificationCount() == tracker.getJavaStructureModificationCount();
       }
-    }
-    return null;
+    }).getTable(type);
+  }
+
+  /**
+   * Returns the property paths resolved from the specified model class. The trie is shared by everything which
+   * resolves <tt>@Bound</tt> paths against the class, and is cached along with its {@link BeanPropertyTable}.
+   */
+  public static PropertyPathTrie getPropertyPaths(PsiClass modelClass) {
+    return getBeanPropertyTable(modelClass).getPropertyPaths();
   }
 
   public static PsiClass getPsiClassFromType(Project project, PsiType type) {
@@ -235,14 +236,6 @@ public class DataBindUtil {
     return JavaPsiFacade.getInstance(project).findClass(typeName, GlobalSearchScope.allScope(project));
   }
 
-  private static PropertyInfo getOrCreatePropertyInfo(Map<String, PropertyInfo> map, String property) {
-    PropertyInfo info = map.get(property);
-    if (info == null) {
-      map.put(property, info = new PropertyInfo());
-      info.setPropertyName(property);
-    }
-    return info;
-  }
 
   public DataBindUtil() {
   }
@@ -380,35 +373,26 @@ public class DataBindUtil {
     return cm;
   }
 
-  public static Set<String> getConfiguredBindableTypes(Project project) {
-    final Set<String> bindableTypes = new HashSet<String>();
-
-    for (PsiFile file : Util.getAllErraiAppProperties(project)) {
-      if (file == null) {
-        continue;
-      }
-      PropertiesFile propertiesFile = PropertiesImplUtil.getPropertiesFile(file);
-      if (propertiesFile == null) {
-        continue;
-      }
-      for (IProperty property : PropertiesUtil
-          .findAllProperties(project, propertiesFile.getResourceBundle(),
-              "errai.ui.bindableTypes")) {
-        final String value = property.getValue();
-        if (value != null) {
-          for (String s : value.split("\\s+")) {
-            bindableTypes.add(s.trim());
-          }
-        }
-      }
-    }
-
-    return bindableTypes;
+  /**
+   * Returns the bindable types configured in the <tt>ErraiApp.properties</tt> files visible from the module of the
+   * specified element. Every bindability check goes through this, with the binding site as the element where
+   * there is one, so that validation, completion and rename agree on which types are bindable.
+   */
+  public static Set<String> getConfiguredBindableTypes(PsiElement element) {
+    return ErraiAppProperties.getTypes(element, ErraiAppProperties.BINDABLE_TYPES);
   }
 
   public static boolean typeIsBindable(PsiClass psiClass) {
+    return typeIsBindable(psiClass, psiClass);
+  }
+
+  /**
+   * @param context
+   *     the element the type is bound from, which determines the <tt>ErraiApp.properties</tt> files that apply.
+   */
+  public static boolean typeIsBindable(PsiClass psiClass, PsiElement context) {
     return !(!Util.typeIsAnnotated(psiClass, Types.BINDABLE)
-        && !getConfiguredBindableTypes(psiClass.getProject()).contains(psiClass.getQualifiedName()));
+        && !getConfiguredBindableTypes(context).contains(psiClass.getQualifiedName()));
   }
 
   public static Collection<PsiClass> getModelOwners(PsiClass modelClass) {
@@ -25,6 +25,7 @@ import com.intellij.psi.PsiReferenceProvider;
 import com.intellij.util.ProcessingContext;
 import org.jboss.errai.idea.plugin.databinding.DataBindUtil;
 import org.jboss.errai.idea.plugin.databinding.model.BeanBindingMetaData;
+import org.jboss.errai.idea.plugin.databinding.model.PropertyPathTrie;
 import org.jboss.errai.idea.plugin.util.ExpressionErrorReference;
 import org.jboss.errai.idea.plugin.util.Util;
 import org.jetbrains.annotations.NotNull;
@@ -52,6 +53,7 @@ class BeanPropertyReferenceProvider extends PsiReferenceProvider {
 
     final BeanBindingMetaData metaData = DataBindUtil.getDataBindingMetaData(element);
     PsiClass cls = metaData.getBoundClass();
+    PropertyPathTrie.Node node = cls == null ? null : DataBindUtil.getPropertyPaths(cls).getRoot();
 
     final List<PsiReference> references = new ArrayList<PsiReference>();
     int cursor = 1;
@@ -69,8 +71,8 @@ class BeanPropertyReferenceProvider extends PsiReferenceProvider {
       }
 
       final PsiClass parentType = cls;
-      final PsiClass propPsiClass
-          = DataBindUtil.getBeanPropertyType(cls, propertyName.trim());
+      node = node.getChild(propertyName.trim());
+      final PsiClass propPsiClass = node == null ? null : node.getType();
 
       if (propPsiClass == null) {
         references.add(new ExpressionErrorReference(literalExpression, propertyName, range));
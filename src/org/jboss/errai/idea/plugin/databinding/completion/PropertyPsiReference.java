@@ -53,7 +53,7 @@ class PropertyPsiReference extends PsiReferenceBase<PsiLiteralExpression> {
   }
 
   public Map<String, PropertyInfo> getCompletions() {
-    return DataBindUtil.getAllProperties(parentType, propertyName.trim());
+    return DataBindUtil.getAllProperties(parentType, propertyName.trim(), getElement());
   }
 
   @Override
@@ -105,7 +105,7 @@ class PropertyPsiReference extends PsiReferenceBase<PsiLiteralExpression> {
       final LookupElementBuilder lookupElementBuilder = LookupElementBuilder.create(entry.getKey());
       final LookupElementBuilder e;
 
-      if (DataBindUtil.typeIsBindable(entry.getValue().getPropertyType())) {
+      if (DataBindUtil.typeIsBindable(entry.getValue().getPropertyType(), getElement())) {
         e = lookupElementBuilder.withIcon(AllIcons.Nodes.Class);
       }
       else {
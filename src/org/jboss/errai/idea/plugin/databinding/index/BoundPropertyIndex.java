@@ -0,0 +1,231 @@
+/*
+ * Copyright 2013 Red Hat, Inc.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package org.jboss.errai.idea.plugin.databinding.index;
+
+import com.intellij.openapi.fileTypes.StdFileTypes;
+import com.intellij.openapi.project.DumbService;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.psi.JavaPsiFacade;
+import com.intellij.psi.JavaRecursiveElementWalkingVisitor;
+import com.intellij.psi.PsiAnnotation;
+import com.intellij.psi.PsiAnnotationMemberValue;
+import com.intellij.psi.PsiClass;
+import com.intellij.psi.PsiFile;
+import com.intellij.psi.PsiJavaCodeReferenceElement;
+import com.intellij.psi.PsiJavaFile;
+import com.intellij.psi.PsiLiteralExpression;
+import com.intellij.psi.search.GlobalSearchScope;
+import com.intellij.psi.util.PsiUtil;
+import com.intellij.util.indexing.DataIndexer;
+import com.intellij.util.indexing.FileBasedIndex;
+import com.intellij.util.indexing.FileBasedIndexExtension;
+import com.intellij.util.indexing.FileContent;
+import com.intellij.util.indexing.ID;
+import com.intellij.util.io.DataExternalizer;
+import com.intellij.util.io.EnumeratorStringDescriptor;
+import com.intellij.util.io.IOUtil;
+import com.intellij.util.io.KeyDescriptor;
+import com.intellij.util.text.CharArrayUtil;
+import org.jboss.errai.idea.plugin.util.Types;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Index of the segments of explicit <tt>@Bound(property = "...")</tt> paths, such as <tt>address</tt> and
+ * <tt>city</tt> for <tt>address.city</tt>. Each segment maps to the top-level classes declaring a <tt>@Bound</tt>
+ * annotation whose path goes through it. Renaming a model property only has to look at those classes, instead
+ * of searching the project for every injected model and re-resolving all of their bindings.
+ * <p/>
+ * Files are read without resolving any references.
+ *
+ * @author Mike Brock
+ */
+public class BoundPropertyIndex extends FileBasedIndexExtension<String, List<String>> {
+  public static final ID<String, List<String>> NAME = ID.create("errai.databinding.BoundPropertyIndex");
+
+  private static final String BOUND_SHORT_NAME = Types.BOUND.substring(Types.BOUND.lastIndexOf('.') + 1);
+
+  @NotNull
+  @Override
+  public ID<String, List<String>> getName() {
+    return NAME;
+  }
+
+  @NotNull
+  @Override
+  public DataIndexer<String, List<String>, FileContent> getIndexer() {
+    return new DataIndexer<String, List<String>, FileContent>() {
+      @NotNull
+      @Override
+      public Map<String, List<String>> map(FileContent inputData) {
+        final CharSequence text = inputData.getContentAsText();
+        if (CharArrayUtil.indexOf(text, BOUND_SHORT_NAME, 0) == -1
+            || CharArrayUtil.indexOf(text, "property", 0) == -1) {
+          return Collections.emptyMap();
+        }
+
+        final PsiFile psiFile = inputData.getPsiFile();
+        if (!(psiFile instanceof PsiJavaFile)) {
+          return Collections.emptyMap();
+        }
+
+        return scan((PsiJavaFile) psiFile);
+      }
+    };
+  }
+
+  private static Map<String, List<String>> scan(PsiJavaFile javaFile) {
+    final Map<String, Set<String>> ownersBySegment = new HashMap<String, Set<String>>();
+
+    javaFile.accept(new JavaRecursiveElementWalkingVisitor() {
+      @Override
+      public void visitAnnotation(PsiAnnotation annotation) {
+        final PsiJavaCodeReferenceElement reference = annotation.getNameReferenceElement();
+        if (reference == null) {
+          return;
+        }
+
+        final String name = reference.getText();
+        if (!BOUND_SHORT_NAME.equals(name) && !Types.BOUND.equals(name)) {
+          return;
+        }
+
+        final PsiAnnotationMemberValue value = annotation.findDeclaredAttributeValue("property");
+        if (!(value instanceof PsiLiteralExpression)) {
+          return;
+        }
+
+        final Object property = ((PsiLiteralExpression) value).getValue();
+        final PsiClass owner = PsiUtil.getTopLevelClass(annotation);
+        if (!(property instanceof String) || owner == null || owner.getQualifiedName() == null) {
+          return;
+        }
+
+        for (String segment : ((String) property).split("\\.")) {
+          segment = segment.trim();
+          if (segment.length() == 0) {
+            continue;
+          }
+
+          Set<String> owners = ownersBySegment.get(segment);
+          if (owners == null) {
+            ownersBySegment.put(segment, owners = new LinkedHashSet<String>());
+          }
+          owners.add(owner.getQualifiedName());
+        }
+      }
+    });
+
+    final Map<String, List<String>> result = new HashMap<String, List<String>>();
+    for (Map.Entry<String, Set<String>> entry : ownersBySegment.entrySet()) {
+      result.put(entry.getKey(), new ArrayList<String>(entry.getValue()));
+    }
+    return result;
+  }
+
+  @NotNull
+  @Override
+  public KeyDescriptor<String> getKeyDescriptor() {
+    return new EnumeratorStringDescriptor();
+  }
+
+  @NotNull
+  @Override
+  public DataExternalizer<List<String>> getValueExternalizer() {
+    return new DataExternalizer<List<String>>() {
+      @Override
+      public void save(DataOutput out, List<String> value) throws IOException {
+        out.writeInt(value.size());
+        for (String owner : value) {
+          IOUtil.writeUTF(out, owner);
+        }
+      }
+
+      @Override
+      public List<String> read(DataInput in) throws IOException {
+        final int size = in.readInt();
+        final List<String> owners = new ArrayList<String>(size);
+        for (int i = 0; i < size; i++) {
+          owners.add(IOUtil.readUTF(in));
+        }
+        return owners;
+      }
+    };
+  }
+
+  @NotNull
+  @Override
+  public FileBasedIndex.InputFilter getInputFilter() {
+    return new FileBasedIndex.InputFilter() {
+      @Override
+      public boolean acceptInput(VirtualFile file) {
+        return file.getFileType() == StdFileTypes.JAVA;
+      }
+    };
+  }
+
+  @Override
+  public boolean dependsOnFileContent() {
+    return true;
+  }
+
+  @Override
+  public int getVersion() {
+    return 1;
+  }
+
+  /**
+   * Returns the classes of the project declaring a <tt>@Bound</tt> property path that goes through the specified
+   * property name.
+   *
+   * @return the owning classes, or <tt>null</tt> if the index cannot be queried right now (while indexing is in
+   *         progress).
+   */
+  public static Collection<PsiClass> getOwners(Project project, String propertyName) {
+    if (DumbService.isDumb(project)) {
+      return null;
+    }
+
+    final GlobalSearchScope scope = GlobalSearchScope.projectScope(project);
+    final Set<String> classNames = new LinkedHashSet<String>();
+    for (List<String> owners : FileBasedIndex.getInstance().getValues(NAME, propertyName, scope)) {
+      classNames.addAll(owners);
+    }
+
+    final JavaPsiFacade facade = JavaPsiFacade.getInstance(project);
+    final List<PsiClass> result = new ArrayList<PsiClass>(classNames.size());
+    for (String className : classNames) {
+      final PsiClass psiClass = facade.findClass(className, scope);
+      if (psiClass != null) {
+        result.add(psiClass);
+      }
+    }
+    return result;
+  }
+}
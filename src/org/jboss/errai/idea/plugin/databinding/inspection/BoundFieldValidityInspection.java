@@ -70,25 +70,26 @@ public class BoundFieldValidityInspection extends BaseJavaLocalInspectionTool {
 
   @NotNull
   @Override
-  public PsiElementVisitor buildVisitor(@NotNull final ProblemsHolder holder, final boolean isOnTheFly) {
-    return new MyJavaElementVisitor(holder);
+  public PsiElementVisitor buildVisitor(@NotNull final ProblemsHolder holder,
+                                        final boolean isOnTheFly,
+                                        @NotNull final LocalInspectionToolSession session) {
+    if (!Util.isErraiFile(holder.getFile())) {
+      return PsiElementVisitor.EMPTY_VISITOR;
+    }
+    return new MyJavaElementVisitor(holder, session);
   }
 
-  private static class MyJavaElementVisitor extends JavaElementVisitor {
+  private static class MyJavaElementVisitor extends ErraiAnnotationVisitor {
     private final ProblemsHolder holder;
 
-    public MyJavaElementVisitor(ProblemsHolder holder) {
+    public MyJavaElementVisitor(ProblemsHolder holder, LocalInspectionToolSession session) {
+      super(session, Types.BOUND);
       this.holder = holder;
     }
 
     @Override
-    public void visitAnnotation(PsiAnnotation annotation) {
-      final String qualifiedName = annotation.getQualifiedName();
-      if (qualifiedName != null) {
-        if (qualifiedName.equals(Types.BOUND)) {
-          ensureBoundFieldIsValid(holder, annotation);
-        }
-      }
+    protected void visitErraiAnnotation(PsiAnnotation annotation, String qualifiedName) {
+      ensureBoundFieldIsValid(holder, annotation);
     }
   }
 
@@ -19,11 +19,11 @@ package org.jboss.errai.idea.plugin.databinding.inspection;
 import com.intellij.codeHighlighting.HighlightDisplayLevel;
 import com.intellij.codeInsight.daemon.GroupNames;
 import com.intellij.codeInspection.BaseJavaLocalInspectionTool;
+import com.intellij.codeInspection.LocalInspectionToolSession;
 import com.intellij.codeInspection.LocalQuickFix;
 import com.intellij.codeInspection.ProblemDescriptor;
 import com.intellij.codeInspection.ProblemsHolder;
 import com.intellij.openapi.project.Project;
-import com.intellij.psi.JavaElementVisitor;
 import com.intellij.psi.JavaPsiFacade;
 import com.intellij.psi.PsiAnnotation;
 import com.intellij.psi.PsiClass;
@@ -41,6 +41,7 @@ import com.intellij.psi.util.PsiUtil;
 import org.jboss.errai.idea.plugin.databinding.DataBindUtil;
 import org.jboss.errai.idea.plugin.databinding.model.BoundMetaData;
 import org.jboss.errai.idea.plugin.util.AnnotationSearchResult;
+import org.jboss.errai.idea.plugin.util.ErraiAnnotationVisitor;
 import org.jboss.errai.idea.plugin.util.Types;
 import org.jboss.errai.idea.plugin.util.Util;
 import org.jetbrains.annotations.Nls;
@@ -85,25 +86,26 @@ public class BoundModelValidInspection extends BaseJavaLocalInspectionTool {
 
   @NotNull
   @Override
-  public PsiElementVisitor buildVisitor(@NotNull final ProblemsHolder holder, final boolean isOnTheFly) {
-    return new MyJavaElementVisitor(holder);
+  public PsiElementVisitor buildVisitor(@NotNull final ProblemsHolder holder,
+                                        final boolean isOnTheFly,
+                                        @NotNull final LocalInspectionToolSession session) {
+    if (!Util.isErraiFile(holder.getFile())) {
+      return PsiElementVisitor.EMPTY_VISITOR;
+    }
+    return new MyJavaElementVisitor(holder, session);
   }
 
-  private static class MyJavaElementVisitor extends JavaElementVisitor {
+  private static class MyJavaElementVisitor extends ErraiAnnotationVisitor {
     private final ProblemsHolder holder;
 
-    public MyJavaElementVisitor(ProblemsHolder holder) {
+    public MyJavaElementVisitor(ProblemsHolder holder, LocalInspectionToolSession session) {
+      super(session, Types.AUTO_BOUND, Types.MODEL);
       this.holder = holder;
     }
 
     @Override
-    public void visitAnnotation(PsiAnnotation annotation) {
-      final String qualifiedName = annotation.getQualifiedName();
-      if (qualifiedName != null) {
-        if (qualifiedName.equals(Types.AUTO_BOUND) || qualifiedName.equals(Types.MODEL)) {
-          ensureBoundModelIsValid(holder, annotation);
-        }
-      }
+    protected void visitErraiAnnotation(PsiAnnotation annotation, String qualifiedName) {
+      ensureBoundModelIsValid(holder, annotation);
     }
 
     private static void ensureBoundModelIsValid(ProblemsHolder holder, PsiAnnotation annotation) {
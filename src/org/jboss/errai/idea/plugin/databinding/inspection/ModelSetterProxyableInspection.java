@@ -19,11 +19,11 @@ package org.jboss.errai.idea.plugin.databinding.inspection;
 import com.intellij.codeHighlighting.HighlightDisplayLevel;
 import com.intellij.codeInsight.daemon.GroupNames;
 import com.intellij.codeInspection.BaseJavaLocalInspectionTool;
+import com.intellij.codeInspection.LocalInspectionToolSession;
 import com.intellij.codeInspection.LocalQuickFix;
 import com.intellij.codeInspection.ProblemDescriptor;
 import com.intellij.codeInspection.ProblemsHolder;
 import com.intellij.openapi.project.Project;
-import com.intellij.psi.JavaElementVisitor;
 import com.intellij.psi.JavaPsiFacade;
 import com.intellij.psi.PsiAnnotation;
 import com.intellij.psi.PsiClass;
@@ -35,6 +35,7 @@ import com.intellij.psi.PsiIdentifier;
 import com.intellij.psi.PsiMethod;
 import com.intellij.psi.PsiModifierList;
 import com.intellij.psi.util.PsiUtil;
+import org.jboss.errai.idea.plugin.util.ErraiAnnotationVisitor;
 import org.jboss.errai.idea.plugin.util.Types;
 import org.jboss.errai.idea.plugin.util.Util;
 import org.jetbrains.annotations.Nls;
@@ -77,25 +78,26 @@ public class ModelSetterProxyableInspection extends BaseJavaLocalInspectionTool
 
   @NotNull
   @Override
-  public PsiElementVisitor buildVisitor(@NotNull final ProblemsHolder holder, final boolean isOnTheFly) {
-    return new MyJavaElementVisitor(holder);
+  public PsiElementVisitor buildVisitor(@NotNull final ProblemsHolder holder,
+                                        final boolean isOnTheFly,
+                                        @NotNull final LocalInspectionToolSession session) {
+    if (!Util.isErraiFile(holder.getFile())) {
+      return PsiElementVisitor.EMPTY_VISITOR;
+    }
+    return new MyJavaElementVisitor(holder, session);
   }
 
-  private static class MyJavaElementVisitor extends JavaElementVisitor {
+  private static class MyJavaElementVisitor extends ErraiAnnotationVisitor {
     private final ProblemsHolder holder;
 
-    public MyJavaElementVisitor(ProblemsHolder holder) {
+    public MyJavaElementVisitor(ProblemsHolder holder, LocalInspectionToolSession session) {
+      super(session, Types.MODEL_SETTER);
       this.holder = holder;
     }
 
     @Override
-    public void visitAnnotation(PsiAnnotation annotation) {
-      final String qualifiedName = annotation.getQualifiedName();
-      if (qualifiedName != null) {
-        if (qualifiedName.equals(Types.MODEL_SETTER)) {
-          ensureBeanisProxyable(holder, annotation);
-        }
-      }
+    protected void visitErraiAnnotation(PsiAnnotation annotation, String qualifiedName) {
+      ensureBeanisProxyable(holder, annotation);
     }
   }
 
@@ -16,10 +16,14 @@
 
 package org.jboss.errai.idea.plugin.databinding.model;
 
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.roots.ProjectRootManager;
 import com.intellij.psi.PsiClass;
+import com.intellij.psi.PsiManager;
 import com.intellij.psi.PsiVariable;
 import org.jboss.errai.idea.plugin.databinding.DataBindUtil;
 import org.jboss.errai.idea.plugin.util.AnnotationSearchResult;
+import org.jboss.errai.idea.plugin.util.ErraiAppProperties;
 import org.jboss.errai.idea.plugin.util.ErraiVersion;
 import org.jboss.errai.idea.plugin.util.Types;
 import org.jboss.errai.idea.plugin.util.Util;
@@ -30,6 +34,11 @@ import java.util.Collection;
 import java.util.Set;
 
 /**
+ * The data binding metadata of a class: its model annotations, the binding type and the bound model class.
+ * <p/>
+ * Instances are cached on the class by {@link DataBindUtil#getDataBindingMetaData}. They record the stamps of
+ * everything they were computed from, see {@link #isCacheValid()}.
+ *
  * @author Mike Brock
  */
 public class BeanBindingMetaData {
@@ -40,10 +49,19 @@ public class BeanBindingMetaData {
   private final PsiClass boundClass;
 
   private final long templateClassModifyTime;
+  private final long structureModificationCount;
+  private final long rootsModificationCount;
+  private final long propertiesModificationCount;
 
   private final Collection<AnnotationSearchResult> modelAnnotations;
 
   public BeanBindingMetaData(PsiClass templateClass) {
+    final Project project = templateClass.getProject();
+    structureModificationCount = PsiManager.getInstance(project).getModificationTracker()
+        .getJavaStructureModificationCount();
+    rootsModificationCount = ProjectRootManager.getInstance(project).getModificationCount();
+    propertiesModificationCount = ErraiAppProperties.getInstance(project).getModificationCount();
+
     this.versionSpec = ErraiVersion.get(templateClass);
 
     this.templateClass = templateClass;
@@ -129,13 +147,35 @@ public class BeanBindingMetaData {
       return true;
     }
 
-    final Set<String> configuredBindableTypes = DataBindUtil.getConfiguredBindableTypes(boundClass.getProject());
+    final Set<String> configuredBindableTypes = DataBindUtil.getConfiguredBindableTypes(templateClass);
     return configuredBindableTypes.contains(boundClass.getQualifiedName());
   }
 
+  /**
+   * Returns true if nothing this metadata depends on has changed since it was computed:
+   * <ul>
+   * <li>the file declaring the class, which holds its model annotations;</li>
+   * <li>the Java structure of the project, which covers inherited model annotations and the declaration of the
+   * bound model class;</li>
+   * <li>the project roots, which determine the Errai version;</li>
+   * <li>the <tt>ErraiApp.properties</tt> files, which may declare the model class bindable.</li>
+   * </ul>
+   */
   public boolean isCacheValid() {
-    return templateClass != null && boundClass != null && templateClassModifyTime == templateClass.getContainingFile().getOriginalFile().getModificationStamp();
+    if (templateClass == null || !templateClass.isValid() || (boundClass != null && !boundClass.isValid())) {
+      return false;
+    }
+
+    final Project project = templateClass.getProject();
+    return templateClassModifyTime == templateClass.getContainingFile().getOriginalFile().getModificationStamp()
+        && structureModificationCount == PsiManager.getInstance(project).getModificationTracker()
+        .getJavaStructureModificationCount()
+        && rootsModificationCount == ProjectRootManager.getInstance(project).getModificationCount()
+        && propertiesModificationCount == ErraiAppProperties.getInstance(project).getModificationCount();
+  }
 
+  public PsiClass getTemplateClass() {
+    return templateClass;
   }
 
   public PsiClass getBoundClass() {
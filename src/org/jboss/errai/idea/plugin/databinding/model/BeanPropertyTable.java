@@ -0,0 +1,177 @@
+/*
+ * Copyright 2013 Red Hat, Inc.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package org.jboss.errai.idea.plugin.databinding.model;
+
+import static org.jboss.errai.idea.plugin.databinding.DataBindUtil.getPropertyFromAccessor;
+import static org.jboss.errai.idea.plugin.databinding.DataBindUtil.getPsiClassFromType;
+
+import com.intellij.openapi.project.Project;
+import com.intellij.psi.PsiClass;
+import com.intellij.psi.PsiMethod;
+import com.intellij.psi.PsiParameter;
+import com.intellij.psi.util.PsiUtil;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Table of the bean properties of a class, including inherited ones. The accessors of the class are scanned and
+ * their types resolved once when the table is built, so looking up a property, or listing all of them, no longer
+ * walks every method of the class.
+ * <p/>
+ * Tables are cached per class by {@link org.jboss.errai.idea.plugin.databinding.DataBindUtil}, until the file
+ * declaring the class or the Java structure of the project (which covers the super classes) changes.
+ *
+ * @author Mike Brock
+ */
+public class BeanPropertyTable {
+  private final PsiClass beanClass;
+
+  /**
+   * The public no-argument getters of the class, keyed by the lower-cased name of their property, as properties
+   * are looked up regardless of case.
+   */
+  private final Map<String, PropertyInfo> gettersByProperty;
+  private final Map<String, PropertyInfo> properties;
+  private final PropertyPathTrie propertyPaths;
+
+  private BeanPropertyTable(PsiClass beanClass,
+                            Map<String, PropertyInfo> gettersByProperty,
+                            Map<String, PropertyInfo> properties) {
+    this.beanClass = beanClass;
+    this.gettersByProperty = gettersByProperty;
+    this.properties = properties;
+    this.propertyPaths = new PropertyPathTrie(beanClass);
+  }
+
+  public static BeanPropertyTable build(PsiClass beanClass) {
+    final Project project = beanClass.getProject();
+    final Map<String, PropertyInfo> gettersByProperty = new HashMap<String, PropertyInfo>();
+    final Map<String, PropertyInfo> properties = new LinkedHashMap<String, PropertyInfo>();
+
+    for (PsiMethod method : beanClass.getAllMethods()) {
+      if (!method.getModifierList().hasModifierProperty("public")) {
+        continue;
+      }
+
+      final String name = method.getName();
+      final PsiParameter[] parameters = method.getParameterList().getParameters();
+      PsiClass returnType = null;
+
+      if (parameters.length == 0 && method.getReturnType() != null) {
+        final String lowerCaseName = name.toLowerCase(Locale.ENGLISH);
+        if (lowerCaseName.startsWith("get") && !gettersByProperty.containsKey(lowerCaseName.substring(3))) {
+          returnType = getPsiClassFromType(project, method.getReturnType());
+          gettersByProperty.put(lowerCaseName.substring(3), createPropertyInfo(null, method, returnType));
+        }
+        if (lowerCaseName.startsWith("is") && !gettersByProperty.containsKey(lowerCaseName.substring(2))) {
+          returnType = getPsiClassFromType(project, method.getReturnType());
+          gettersByProperty.put(lowerCaseName.substring(2), createPropertyInfo(null, method, returnType));
+        }
+      }
+
+      final PsiClass topLevelClass = PsiUtil.getTopLevelClass(method);
+      if (topLevelClass == null || "java.lang.Object".equals(topLevelClass.getQualifiedName())) {
+        continue;
+      }
+
+      final String property = getPropertyFromAccessor(name);
+      if (parameters.length == 0
+          && (name.equalsIgnoreCase("get" + property)) || name.equalsIgnoreCase("is" + property)) {
+        if (method.getReturnType() == null) {
+          continue;
+        }
+        if (returnType == null) {
+          returnType = getPsiClassFromType(project, method.getReturnType());
+        }
+
+        final PropertyInfo info = getOrCreatePropertyInfo(properties, property);
+        info.setGetterElement(method);
+        if (info.getPropertyType() == null) {
+          info.setPropertyType(returnType);
+        }
+      }
+      else if (parameters.length == 1 && name.equalsIgnoreCase("set" + property)) {
+        final PropertyInfo info = getOrCreatePropertyInfo(properties, property);
+        info.setSetterElement(method);
+        if (info.getPropertyType() == null) {
+          info.setPropertyType(getPsiClassFromType(project, parameters[0].getType()));
+        }
+      }
+    }
+
+    return new BeanPropertyTable(beanClass, gettersByProperty, properties);
+  }
+
+  private static PropertyInfo createPropertyInfo(String property, PsiMethod getter, PsiClass type) {
+    final PropertyInfo info = new PropertyInfo();
+    info.setPropertyName(property);
+    info.setGetterElement(getter);
+    info.setPropertyType(type);
+    return info;
+  }
+
+  private static PropertyInfo getOrCreatePropertyInfo(Map<String, PropertyInfo> map, String property) {
+    PropertyInfo info = map.get(property);
+    if (info == null) {
+      map.put(property, info = new PropertyInfo());
+      info.setPropertyName(property);
+    }
+    return info;
+  }
+
+  public PsiClass getBeanClass() {
+    return beanClass;
+  }
+
+  /**
+   * Returns the property read by the first public getter named <tt>get</tt> or <tt>is</tt> followed by the
+   * specified property name, ignoring case.
+   *
+   * @return a new {@link PropertyInfo} named after the specified property, or <tt>null</tt> if there is no such
+   *         getter.
+   */
+  public PropertyInfo getProperty(String property) {
+    final PropertyInfo getter = gettersByProperty.get(property.toLowerCase(Locale.ENGLISH));
+    if (getter == null) {
+      return null;
+    }
+
+    final PropertyInfo info = getter.copy();
+    info.setPropertyName(property);
+    return info;
+  }
+
+  /**
+   * @return all readable and writable properties of the class, in declaration order, excluding those declared by
+   *         <tt>java.lang.Object</tt>.
+   */
+  public Map<String, PropertyInfo> getProperties() {
+    return Collections.unmodifiableMap(properties);
+  }
+
+  /**
+   * @return the property paths resolved from this class, which are shared by everything resolving <tt>@Bound</tt>
+   *         paths against it until the table is discarded.
+   */
+  public PropertyPathTrie getPropertyPaths() {
+    return propertyPaths;
+  }
+}
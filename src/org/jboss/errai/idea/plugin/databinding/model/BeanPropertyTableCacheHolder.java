@@ -0,0 +1,60 @@
+/*
+ * Copyright 2013 Red Hat, Inc.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package org.jboss.errai.idea.plugin.databinding.model;
+
+import com.intellij.psi.PsiClass;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Holds the {@link BeanPropertyTable}s of the classes declared in one file, together with the modification stamp of
+ * the file and the Java structure modification count of the project they were built at.
+ *
+ * @author Mike Brock
+ */
+public class BeanPropertyTableCacheHolder {
+  private final long time;
+  private final long structureModificationCount;
+  private final ConcurrentMap<PsiClass, BeanPropertyTable> tables
+      = new ConcurrentHashMap<PsiClass, BeanPropertyTable>();
+
+  public BeanPropertyTableCacheHolder(long time, long structureModificationCount) {
+    this.time = time;
+    this.structureModificationCount = structureModificationCount;
+  }
+
+  public long getTime() {
+    return time;
+  }
+
+  public long getStructureModificationCount() {
+    return structureModificationCount;
+  }
+
+  public BeanPropertyTable getTable(PsiClass beanClass) {
+    BeanPropertyTable table = tables.get(beanClass);
+    if (table == null) {
+      final BeanPropertyTable newTable = BeanPropertyTable.build(beanClass);
+      table = tables.putIfAbsent(beanClass, newTable);
+      if (table == null) {
+        table = newTable;
+      }
+    }
+    return table;
+  }
+}
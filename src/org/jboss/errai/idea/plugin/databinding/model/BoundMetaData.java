@@ -16,15 +16,12 @@
 
 package org.jboss.errai.idea.plugin.databinding.model;
 
-import static com.intellij.psi.search.GlobalSearchScope.allScope;
 import static org.jboss.errai.idea.plugin.databinding.DataBindUtil.getConvertibilityMetaData;
 import static org.jboss.errai.idea.plugin.databinding.DataBindUtil.typeIsBindableToWidget;
 
-import com.intellij.psi.JavaPsiFacade;
 import com.intellij.psi.PsiAnnotation;
 import com.intellij.psi.PsiClass;
 import com.intellij.psi.PsiElement;
-import com.intellij.psi.PsiField;
 import com.intellij.psi.PsiVariable;
 import org.jboss.errai.idea.plugin.databinding.DataBindUtil;
 import org.jboss.errai.idea.plugin.util.DefaultPolicy;
@@ -78,9 +75,10 @@ public class BoundMetaData {
     final PsiClass boundClass = getBindingMetaData().getBoundClass();
 
     if (property != null && boundClass != null && boundClass.getParent() != null) {
-      final Set<String> bindableTypes = DataBindUtil.getConfiguredBindableTypes(boundClass.getProject());
+      final Set<String> bindableTypes = DataBindUtil.getConfiguredBindableTypes(owner);
 
       PsiClass cls = boundClass;
+      PropertyPathTrie.Node node = DataBindUtil.getPropertyPaths(boundClass).getRoot();
       for (String token : property.split("\\.")) {
         if (!bindableTypes.contains(cls.getQualifiedName()) && !Util.elementIsAnnotated(cls, Types.BINDABLE)) {
           PropertyValidation validation = new PropertyValidation();
@@ -89,15 +87,15 @@ public class BoundMetaData {
           validation.setUnresolvedPropertyElement(token);
           return validation;
         }
-        PsiClass result = DataBindUtil.getBeanPropertyType(cls, token.trim());
-        if (result == null) {
+        node = node.getChild(token.trim());
+        if (node == null || node.getType() == null) {
           PropertyValidation validation = new PropertyValidation();
           validation.setParentBindable(true);
           validation.setUnresolvedParent(cls);
           validation.setUnresolvedPropertyElement(token);
           return validation;
         }
-        cls = result;
+        cls = node.getType();
       }
 
       final PropertyValidation validation = new PropertyValidation(true);
@@ -124,38 +122,14 @@ public class BoundMetaData {
     }
   }
 
+  /**
+   * @return true if the specified model class is the bound class of this binding, or can be reached from it
+   *         through its fields.
+   */
   public boolean isModelApplicable(PsiClass modelClass) {
     final PsiClass boundClass = getBindingMetaData().getBoundClass();
-    final JavaPsiFacade facade = JavaPsiFacade.getInstance(modelClass.getProject());
 
-    return boundClass != null && _isModelApplicable(boundClass, modelClass, facade);
-  }
-
-  private static boolean _isModelApplicable(PsiClass toCheck, PsiClass modelClass, JavaPsiFacade facade) {
-    if (toCheck == null) {
-      return false;
-    }
-
-    final String qualifiedName = toCheck.getQualifiedName();
-
-    if (qualifiedName == null) {
-      return false;
-    }
-
-    if (qualifiedName.equals(modelClass.getQualifiedName())) {
-      return true;
-    }
-
-    for (PsiField field : toCheck.getAllFields()) {
-      if (field.getType().getCanonicalText().equals(modelClass.getQualifiedName())) {
-        return true;
-      }
-
-      final PsiClass psiClass = facade.findClass(field.getType().getCanonicalText(), allScope(facade.getProject()));
-      if (_isModelApplicable(psiClass, modelClass, facade)) {
-        return true;
-      }
-    }
-    return false;
+    return boundClass != null && ModelReachability.getInstance(modelClass.getProject())
+        .isReachable(boundClass, modelClass);
   }
 }
@@ -0,0 +1,160 @@
+/*
+ * Copyright 2013 Red Hat, Inc.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package org.jboss.errai.idea.plugin.databinding.model;
+
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.roots.ProjectRootManager;
+import com.intellij.openapi.util.Key;
+import com.intellij.psi.JavaPsiFacade;
+import com.intellij.psi.PsiClass;
+import com.intellij.psi.PsiField;
+import com.intellij.psi.PsiManager;
+import com.intellij.psi.search.GlobalSearchScope;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Graph of the types reachable from a class through its fields, including inherited ones, used to tell whether a
+ * model class can be reached from a bound class. Classes are identified by their qualified name. The field types
+ * of every class are read only once, and each class is visited at most once per search, so models referring back
+ * to each other (such as an order and its customer) are searched in linear time.
+ * <p/>
+ * Answers are cached per root and target. The graph is kept per project and discarded when the Java structure
+ * of the project, which includes the types of all fields, or the project roots change.
+ *
+ * @author Mike Brock
+ */
+public class ModelReachability {
+  private static final Key<ModelReachability> reachabilityKey = Key.create("errai.ModelReachability");
+
+  private final Project project;
+  private final long structureModificationCount;
+  private final long rootsModificationCount;
+
+  private final ConcurrentMap<String, List<String>> fieldTypesByClass = new ConcurrentHashMap<String, List<String>>();
+  private final ConcurrentMap<String, Boolean> answers = new ConcurrentHashMap<String, Boolean>();
+
+  private ModelReachability(Project project, long structureModificationCount, long rootsModificationCount) {
+    this.project = project;
+    this.structureModificationCount = structureModificationCount;
+    this.rootsModificationCount = rootsModificationCount;
+  }
+
+  public static ModelReachability getInstance(Project project) {
+    final long structureModificationCount = PsiManager.getInstance(project).getModificationTracker()
+        .getJavaStructureModificationCount();
+    final long rootsModificationCount = ProjectRootManager.getInstance(project).getModificationCount();
+
+    ModelReachability reachability = project.getUserData(reachabilityKey);
+    if (reachability == null
+        || reachability.structureModificationCount != structureModificationCount
+        || reachability.rootsModificationCount != rootsModificationCount) {
+      reachability = new ModelReachability(project, structureModificationCount, rootsModificationCount);
+      project.putUserData(reachabilityKey, reachability);
+    }
+    return reachability;
+  }
+
+  /**
+   * Returns true if the target class is the root class, or the type of a field of the root class or of any class
+   * reachable from it through its fields.
+   */
+  public boolean isReachable(PsiClass root, PsiClass target) {
+    final String rootName = root.getQualifiedName();
+    final String targetName = target.getQualifiedName();
+    if (rootName == null || targetName == null) {
+      return false;
+    }
+
+    Boolean answer = answers.get(answerKey(rootName, targetName));
+    if (answer == null) {
+      answer = search(root, rootName, targetName);
+    }
+    return answer;
+  }
+
+  private boolean search(PsiClass root, String rootName, String targetName) {
+    if (rootName.equals(targetName)) {
+      answers.put(answerKey(rootName, targetName), true);
+      return true;
+    }
+
+    final Set<String> visited = new HashSet<String>();
+    final Queue<String> toVisit = new LinkedList<String>();
+    visited.add(rootName);
+    toVisit.add(rootName);
+
+    while (!toVisit.isEmpty()) {
+      final String className = toVisit.poll();
+      final List<String> fieldTypes = className.equals(rootName)
+          ? getFieldTypes(className, root) : getFieldTypes(className, null);
+
+      for (String fieldType : fieldTypes) {
+        if (fieldType.equals(targetName)) {
+          answers.put(answerKey(rootName, targetName), true);
+          return true;
+        }
+        if (visited.add(fieldType)) {
+          toVisit.add(fieldType);
+        }
+      }
+    }
+
+    // nothing reachable from any visited class leads to the target either
+    for (String className : visited) {
+      answers.put(answerKey(className, targetName), false);
+    }
+    return false;
+  }
+
+  private List<String> getFieldTypes(String className, PsiClass psiClass) {
+    List<String> fieldTypes = fieldTypesByClass.get(className);
+    if (fieldTypes != null) {
+      return fieldTypes;
+    }
+
+    if (psiClass == null) {
+      psiClass = JavaPsiFacade.getInstance(project).findClass(className, GlobalSearchScope.allScope(project));
+    }
+
+    if (psiClass == null) {
+      fieldTypes = Collections.emptyList();
+    }
+    else {
+      final PsiField[] fields = psiClass.getAllFields();
+      fieldTypes = new ArrayList<String>(fields.length);
+      for (PsiField field : fields) {
+        fieldTypes.add(field.getType().getCanonicalText());
+      }
+    }
+
+    fieldTypesByClass.put(className, fieldTypes);
+    return fieldTypes;
+  }
+
+  private static String answerKey(String rootName, String targetName) {
+    return rootName + ' ' + targetName;
+  }
+}
@@ -59,6 +59,18 @@ public class PropertyInfo {
     return null;
   }
 
+  /**
+   * @return a new instance describing the same property.
+   */
+  public PropertyInfo copy() {
+    final PropertyInfo info = new PropertyInfo();
+    info.propertyName = propertyName;
+    info.propertyType = propertyType;
+    info.getterElement = getterElement;
+    info.setterElement = setterElement;
+    return info;
+  }
+
   public PsiClass getPropertyType() {
     return propertyType;
   }
@@ -0,0 +1,110 @@
+/*
+ * Copyright 2013 Red Hat, Inc.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package org.jboss.errai.idea.plugin.databinding.model;
+
+import com.intellij.psi.PsiClass;
+import org.jboss.errai.idea.plugin.databinding.DataBindUtil;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Trie of the property paths resolved from a model class, such as <tt>address</tt>, <tt>address.city</tt> and
+ * <tt>address.city.name</tt>. Each node holds the property at the end of its path and the type of that property,
+ * and every segment is resolved only once, so all the <tt>@Bound</tt> paths of a model which share a prefix
+ * resolve that prefix once.
+ * <p/>
+ * A trie belongs to the {@link BeanPropertyTable} of its model class, and is discarded with it when the Java
+ * structure of the project changes, which covers the accessors of every class along a path.
+ *
+ * @author Mike Brock
+ */
+public class PropertyPathTrie {
+  /**
+   * Recorded for segments which cannot be resolved, as the map cannot hold <tt>null</tt>.
+   */
+  private static final Node UNRESOLVED = new Node(null, null);
+
+  private final Node root;
+
+  public PropertyPathTrie(PsiClass modelClass) {
+    this.root = new Node(null, modelClass);
+  }
+
+  /**
+   * @return the node of the empty path, whose type is the model class.
+   */
+  public Node getRoot() {
+    return root;
+  }
+
+  /**
+   * Resolves a dotted property path from the model class.
+   *
+   * @return the node at the end of the path, or <tt>null</tt> if one of the segments cannot be resolved.
+   */
+  public Node resolve(String path) {
+    Node node = root;
+    for (String segment : path.split("\\.")) {
+      node = node.getChild(segment.trim());
+      if (node == null) {
+        return null;
+      }
+    }
+    return node;
+  }
+
+  public static class Node {
+    private final PropertyInfo property;
+    private final PsiClass type;
+    private final ConcurrentMap<String, Node> children = new ConcurrentHashMap<String, Node>();
+
+    private Node(PropertyInfo property, PsiClass type) {
+      this.property = property;
+      this.type = type;
+    }
+
+    /**
+     * @return the property at the end of the path of this node, or <tt>null</tt> for the root.
+     */
+    public PropertyInfo getProperty() {
+      return property == null ? null : property.copy();
+    }
+
+    /**
+     * @return the type of the property, or <tt>null</tt> if it cannot be resolved.
+     */
+    public PsiClass getType() {
+      return type;
+    }
+
+    /**
+     * @return the node of the specified property of the type of this node, or <tt>null</tt> if the type has no
+     *         such property.
+     */
+    public Node getChild(String segment) {
+      Node child = children.get(segment);
+      if (child == null || (child.type != null && !child.type.isValid())) {
+        final PropertyInfo info = type == null || !type.isValid()
+            ? null : DataBindUtil.getBeanPropertyInfo(type, segment);
+        child = info == null ? UNRESOLVED : new Node(info, info.getPropertyType());
+        children.put(segment, child);
+      }
+      return child == UNRESOLVED ? null : child;
+    }
+  }
+}
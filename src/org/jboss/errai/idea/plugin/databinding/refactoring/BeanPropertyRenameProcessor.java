@@ -23,13 +23,16 @@ import com.intellij.psi.PsiClass;
 import com.intellij.psi.PsiElement;
 import com.intellij.psi.PsiExpression;
 import com.intellij.psi.PsiField;
+import com.intellij.psi.search.searches.ClassInheritorsSearch;
 import com.intellij.psi.util.PsiUtil;
 import com.intellij.refactoring.rename.RenamePsiElementProcessor;
 import com.intellij.util.IncorrectOperationException;
 import org.jboss.errai.idea.plugin.databinding.DataBindUtil;
+import org.jboss.errai.idea.plugin.databinding.index.BoundPropertyIndex;
 import org.jboss.errai.idea.plugin.databinding.model.BeanBindingMetaData;
 import org.jboss.errai.idea.plugin.databinding.model.BoundMetaData;
 import org.jboss.errai.idea.plugin.databinding.model.PropertyInfo;
+import org.jboss.errai.idea.plugin.databinding.model.PropertyPathTrie;
 import org.jboss.errai.idea.plugin.util.DefaultPolicy;
 import org.jboss.errai.idea.plugin.util.FakeNamedPsi;
 import org.jboss.errai.idea.plugin.util.Types;
@@ -37,7 +40,11 @@ import org.jboss.errai.idea.plugin.util.Util;
 import org.jetbrains.annotations.NotNull;
 
 import java.util.Collection;
+import java.util.HashSet;
 import java.util.Map;
+import java.util.Set;
+
+import static com.intellij.psi.search.GlobalSearchScope.projectScope;
 
 /**
  * @author Mike Brock
@@ -51,8 +58,7 @@ public class BeanPropertyRenameProcessor extends RenamePsiElementProcessor {
         if (Util.elementIsAnnotated(topLevelClass, Types.BINDABLE)) {
           return true;
         }
-        if (DataBindUtil.getConfiguredBindableTypes(topLevelClass.getProject())
-            .contains(topLevelClass.getQualifiedName())) {
+        if (DataBindUtil.getConfiguredBindableTypes(topLevelClass).contains(topLevelClass.getQualifiedName())) {
           return true;
         }
       }
@@ -70,65 +76,107 @@ public class BeanPropertyRenameProcessor extends RenamePsiElementProcessor {
       return;
     }
 
-    final Collection<PsiClass> modelOwners = DataBindUtil.getModelOwners(topLevelClass);
-    for (PsiClass owner : modelOwners) {
-      final BeanBindingMetaData dataBindMetaData = DataBindUtil.getDataBindingMetaData(owner);
+    final String propertyName = ((PsiField) element).getName();
+    final Set<PsiAnnotation> processed = new HashSet<PsiAnnotation>();
 
-      for (BoundMetaData md : DataBindUtil.getAllBoundMetaDataFromClass(owner)) {
-        final PsiAnnotation boundAnnotation = md.getPsiAnnotation();
-        final String property = Util.getAttributeValue(boundAnnotation, "property", DefaultPolicy.NULL);
+    final Collection<PsiClass> indexedOwners = BoundPropertyIndex.getOwners(element.getProject(), propertyName);
+    if (indexedOwners == null) {
+      // the index is not ready, so fall back to searching for every class the model is injected into
+      for (PsiClass owner : DataBindUtil.getModelOwners(topLevelClass)) {
+        renameBoundProperties(owner, element, propertyName, replacementStr, processed, psiElementStringMap);
+      }
+      return;
+    }
 
-        if (property == null) {
-          continue;
+    for (PsiClass owner : indexedOwners) {
+      renameBoundProperties(owner, element, propertyName, replacementStr, processed, psiElementStringMap);
+
+      if (DataBindUtil.getDataBindingMetaData(owner).getBoundClass() == null) {
+        // the model may be injected into a subclass, which inherits the @Bound fields
+        for (PsiClass inheritor : ClassInheritorsSearch.search(owner, projectScope(owner.getProject()), true)) {
+          renameBoundProperties(inheritor, element, propertyName, replacementStr, processed, psiElementStringMap);
         }
+      }
+    }
+  }
+
+  private static void renameBoundProperties(final PsiClass owner,
+                                            final PsiElement element,
+                                            final String propertyName,
+                                            final String replacementStr,
+                                            final Set<PsiAnnotation> processed,
+                                            final Map<PsiElement, String> psiElementStringMap) {
+    final BeanBindingMetaData dataBindMetaData = DataBindUtil.getDataBindingMetaData(owner);
+    if (dataBindMetaData.getBoundClass() == null) {
+      return;
+    }
+
+    for (BoundMetaData md : DataBindUtil.getAllBoundMetaDataFromClass(owner)) {
+      final PsiAnnotation boundAnnotation = md.getPsiAnnotation();
+      if (boundAnnotation == null || processed.contains(boundAnnotation)) {
+        continue;
+      }
+
+      final String property = Util.getAttributeValue(boundAnnotation, "property", DefaultPolicy.NULL);
 
-        final StringBuilder sb = new StringBuilder();
-        boolean first = true;
-        PsiClass cls = dataBindMetaData.getBoundClass();
-        for (String prop : property.split("\\.")) {
-          if (!first) {
-            sb.append('.');
-          }
-          first = false;
-
-          final PropertyInfo beanPropertyInfo = DataBindUtil.getBeanPropertyInfo(cls, prop.trim());
-
-          if (beanPropertyInfo == null) {
-            return;
-          }
-
-          if (element.equals(beanPropertyInfo.getAssociatedField())) {
-            sb.append(replacementStr);
-          }
-          else {
-            sb.append(prop);
-          }
-
-          cls = beanPropertyInfo.getPropertyType();
+      if (property == null || !property.contains(propertyName)) {
+        continue;
+      }
+
+      final StringBuilder sb = new StringBuilder();
+      boolean first = true;
+      boolean renamed = false;
+      PropertyPathTrie.Node node = DataBindUtil.getPropertyPaths(dataBindMetaData.getBoundClass()).getRoot();
+      for (String prop : property.split("\\.")) {
+        if (!first) {
+          sb.append('.');
         }
+        first = false;
 
-        final PsiAnnotationMemberValue property1 = Util.getAnnotationMemberValue(boundAnnotation, "property");
+        node = node.getChild(prop.trim());
 
-        FakeNamedPsi dummy = new FakeNamedPsi(property1) {
-          @Override
-          public PsiElement setName(@NotNull final String name) throws IncorrectOperationException {
-            final PsiExpression expressionFromText = JavaPsiFacade.getInstance(element.getProject()).getElementFactory()
-                .createExpressionFromText("\"" + sb.toString() + "\"", property1);
-            boundAnnotation.setDeclaredAttributeValue("property", expressionFromText);
+        if (node == null) {
+          renamed = false;
+          break;
+        }
 
-            return expressionFromText;
-          }
+        final PropertyInfo beanPropertyInfo = node.getProperty();
 
-          @NotNull
-          @Override
-          public String getName() {
-            final String text = Util.getAnnotationMemberValue(boundAnnotation, "property").getText();
-            return text.substring(1, text.length() - 1);
-          }
-        };
+        if (element.equals(beanPropertyInfo.getAssociatedField())) {
+          sb.append(replacementStr);
+          renamed = true;
+        }
+        else {
+          sb.append(prop);
+        }
+      }
 
-        psiElementStringMap.put(dummy, sb.toString());
+      if (!renamed) {
+        continue;
       }
+      processed.add(boundAnnotation);
+
+      final PsiAnnotationMemberValue property1 = Util.getAnnotationMemberValue(boundAnnotation, "property");
+
+      FakeNamedPsi dummy = new FakeNamedPsi(property1) {
+        @Override
+        public PsiElement setName(@NotNull final String name) throws IncorrectOperationException {
+          final PsiExpression expressionFromText = JavaPsiFacade.getInstance(element.getProject()).getElementFactory()
+              .createExpressionFromText("\"" + sb.toString() + "\"", property1);
+          boundAnnotation.setDeclaredAttributeValue("property", expressionFromText);
+
+          return expressionFromText;
+        }
+
+        @NotNull
+        @Override
+        public String getName() {
+          final String text = Util.getAnnotationMemberValue(boundAnnotation, "property").getText();
+          return text.substring(1, text.length() - 1);
+        }
+      };
+
+      psiElementStringMap.put(dummy, sb.toString());
     }
   }
 }
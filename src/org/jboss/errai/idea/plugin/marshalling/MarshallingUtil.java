@@ -19,10 +19,6 @@ package org.jboss.errai.idea.plugin.marshalling;
 import static com.intellij.psi.search.GlobalSearchScope.allScope;
 import static com.intellij.psi.search.searches.AnnotatedElementsSearch.searchPsiClasses;
 
-import com.intellij.lang.properties.IProperty;
-import com.intellij.lang.properties.PropertiesImplUtil;
-import com.intellij.lang.properties.PropertiesUtil;
-import com.intellij.lang.properties.psi.PropertiesFile;
 import com.intellij.openapi.project.Project;
 import com.intellij.psi.JavaPsiFacade;
 import com.intellij.psi.PsiAnnotation;
@@ -30,10 +26,10 @@ import com.intellij.psi.PsiAnnotationMemberValue;
 import com.intellij.psi.PsiArrayInitializerMemberValue;
 import com.intellij.psi.PsiClass;
 import com.intellij.psi.PsiClassObjectAccessExpression;
-import com.intellij.psi.PsiFile;
 import com.intellij.psi.PsiTypeElement;
 import com.intellij.psi.search.GlobalSearchScope;
 import com.intellij.util.Query;
+import org.jboss.errai.idea.plugin.util.ErraiAppProperties;
 import org.jboss.errai.idea.plugin.util.Types;
 import org.jboss.errai.idea.plugin.util.Util;
 
@@ -53,29 +49,7 @@ public class MarshallingUtil {
   }
 
   public static Set<String> getConfiguredPortableTypes(Project project) {
-    final Set<String> bindableTypes = new HashSet<String>();
-
-    for (PsiFile file : Util.getAllErraiAppProperties(project)) {
-      if (file == null) {
-        continue;
-      }
-      PropertiesFile propertiesFile = PropertiesImplUtil.getPropertiesFile(file);
-      if (propertiesFile == null) {
-        continue;
-      }
-      for (IProperty property : PropertiesUtil
-          .findAllProperties(project, propertiesFile.getResourceBundle(),
-              "errai.marshalling.serializableTypes")) {
-        final String value = property.getValue();
-        if (value != null) {
-          for (String s : value.split("\\s+")) {
-            bindableTypes.add(s.trim());
-          }
-        }
-      }
-    }
-
-    return bindableTypes;
+    return ErraiAppProperties.getTypes(project, ErraiAppProperties.SERIALIZABLE_TYPES);
   }
 
   public static Set<String> getAllClasspathMarshallers(Project project) {
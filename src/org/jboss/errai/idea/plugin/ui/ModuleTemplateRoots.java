@@ -0,0 +1,278 @@
+/*
+ * Copyright 2013 Red Hat, Inc.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package org.jboss.errai.idea.plugin.ui;
+
+import com.intellij.openapi.module.Module;
+import com.intellij.openapi.roots.ContentEntry;
+import com.intellij.openapi.roots.ModuleRootManager;
+import com.intellij.openapi.roots.OrderEnumerator;
+import com.intellij.openapi.roots.SourceFolder;
+import com.intellij.openapi.util.io.FileUtil;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.util.Processor;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Maps a directory path, relative to the source and resource roots of a module (for example <tt>org/foo</tt>),
+ * to the directories in that module which correspond to it. Both source and resource folders are considered, and
+ * package prefixes of source folders are honoured, so a template living under <tt>src/main/resources</tt> is found
+ * for a class under <tt>src/main/java</tt> in any module of a multi-module build.
+ * <p/>
+ * The roots that a module depends on, which are the source and resource folders of the modules it depends on and
+ * the class roots of its libraries (including library JARs), are available through
+ * {@link #getDependencyDirectories(Module, String, boolean)}, so that templates shipped in a dependency can be
+ * found too.
+ * <p/>
+ * Test source and resource folders, test-scoped dependencies and test-scoped libraries are only considered for
+ * classes under test sources, so a production class never resolves its template from a test fixture which is not
+ * on its runtime classpath. Dependency modules only contribute their production folders.
+ * <p/>
+ * Lookups are memoized separately for production and test classes. The roots of a module are read once, and the
+ * memoized directories are only discarded when the module roots change or when a directory is created or removed.
+ *
+ * @author Mike Brock
+ */
+public class ModuleTemplateRoots {
+  private final Object lock = new Object();
+  private final Map<Scope, List<Root>> rootsByModule = new HashMap<Scope, List<Root>>();
+  private final Map<Scope, Map<String, PackageDirectories>> directoriesByModule
+      = new HashMap<Scope, Map<String, PackageDirectories>>();
+  private final Map<Scope, List<Root>> dependencyRootsByModule = new HashMap<Scope, List<Root>>();
+  private final Map<Scope, Map<String, PackageDirectories>> dependencyDirectoriesByModule
+      = new HashMap<Scope, Map<String, PackageDirectories>>();
+
+  /**
+   * Returns the directories of the module that correspond to the specified root-relative directory path.
+   *
+   * @param module
+   *     the module to search.
+   * @param relativePath
+   *     the directory path relative to a root, without leading or trailing separators, or an empty string for
+   *     the roots themselves.
+   * @param includeTests
+   *     true to include the test source and resource folders of the module, for a class under test sources.
+   */
+  public PackageDirectories getDirectories(Module module, String relativePath, boolean includeTests) {
+    synchronized (lock) {
+      final Scope scope = new Scope(module, includeTests);
+      Map<String, PackageDirectories> directories = directoriesByModule.get(scope);
+      if (directories == null) {
+        directoriesByModule.put(scope, directories = new HashMap<String, PackageDirectories>());
+      }
+
+      PackageDirectories result = directories.get(relativePath);
+      if (result == null) {
+        directories.put(relativePath, result = findDirectories(getRoots(module, includeTests), relativePath));
+      }
+      return result;
+    }
+  }
+
+  /**
+   * Returns the directories corresponding to the specified root-relative directory path in the modules and
+   * libraries that the module depends on.
+   *
+   * @param includeTests
+   *     true to include test-scoped dependencies and libraries, for a class under test sources.
+   */
+  public PackageDirectories getDependencyDirectories(Module module, String relativePath, boolean includeTests) {
+    synchronized (lock) {
+      final Scope scope = new Scope(module, includeTests);
+      Map<String, PackageDirectories> directories = dependencyDirectoriesByModule.get(scope);
+      if (directories == null) {
+        dependencyDirectoriesByModule.put(scope, directories = new HashMap<String, PackageDirectories>());
+      }
+
+      PackageDirectories result = directories.get(relativePath);
+      if (result == null) {
+        directories.put(relativePath,
+            result = findDirectories(getDependencyRoots(module, includeTests), relativePath));
+      }
+      return result;
+    }
+  }
+
+  private List<Root> getDependencyRoots(final Module module, boolean includeTests) {
+    final Scope scope = new Scope(module, includeTests);
+    List<Root> roots = dependencyRootsByModule.get(scope);
+    if (roots == null) {
+      roots = new ArrayList<Root>();
+
+      final Set<Module> dependencies = new LinkedHashSet<Module>();
+      orderEntries(module, includeTests).forEachModule(new Processor<Module>() {
+        @Override
+        public boolean process(Module dependency) {
+          if (dependency != module) {
+            dependencies.add(dependency);
+          }
+          return true;
+        }
+      });
+      for (Module dependency : dependencies) {
+        // the test folders of a dependency are never on the classpath of the module depending on it
+        roots.addAll(getRoots(dependency, false));
+      }
+
+      for (VirtualFile file : orderEntries(module, includeTests).librariesOnly().classes().getRoots()) {
+        roots.add(new Root(file, ""));
+      }
+      dependencyRootsByModule.put(scope, roots);
+    }
+    return roots;
+  }
+
+  private static OrderEnumerator orderEntries(Module module, boolean includeTests) {
+    final OrderEnumerator enumerator = OrderEnumerator.orderEntries(module).withoutSdk().recursively();
+    return includeTests ? enumerator : enumerator.productionOnly();
+  }
+
+  private List<Root> getRoots(Module module, boolean includeTests) {
+    final Scope scope = new Scope(module, includeTests);
+    List<Root> roots = rootsByModule.get(scope);
+    if (roots == null) {
+      roots = new ArrayList<Root>();
+      for (ContentEntry entry : ModuleRootManager.getInstance(module).getContentEntries()) {
+        for (SourceFolder folder : entry.getSourceFolders()) {
+          if (folder.isTestSource() && !includeTests) {
+            continue;
+          }
+
+          final VirtualFile file = folder.getFile();
+          if (file != null) {
+            roots.add(new Root(file, folder.getPackagePrefix().replace('.', '/')));
+          }
+        }
+      }
+      rootsByModule.put(scope, roots);
+    }
+    return roots;
+  }
+
+  private static PackageDirectories findDirectories(List<Root> roots, String relativePath) {
+    final List<VirtualFile> directories = new ArrayList<VirtualFile>();
+    final List<String> paths = new ArrayList<String>();
+
+    for (Root root : roots) {
+      final String subPath;
+      if (root.prefixPath.length() == 0) {
+        subPath = relativePath;
+      }
+      else if (relativePath.equals(root.prefixPath)) {
+        subPath = "";
+      }
+      else if (relativePath.startsWith(root.prefixPath + "/")) {
+        subPath = relativePath.substring(root.prefixPath.length() + 1);
+      }
+      else {
+        continue;
+      }
+
+      paths.add(FileUtil.toCanonicalPath(root.file.getPath() + "/" + subPath));
+
+      final VirtualFile directory = subPath.length() == 0 ? root.file : root.file.findFileByRelativePath(subPath);
+      if (directory != null && directory.isDirectory()) {
+        directories.add(directory);
+      }
+    }
+
+    return new PackageDirectories(directories, paths);
+  }
+
+  /**
+   * Discards the memoized directories of all modules, while keeping the module roots.
+   */
+  public void directoriesChanged() {
+    synchronized (lock) {
+      directoriesByModule.clear();
+      dependencyDirectoriesByModule.clear();
+    }
+  }
+
+  public void clear() {
+    synchronized (lock) {
+      rootsByModule.clear();
+      directoriesByModule.clear();
+      dependencyRootsByModule.clear();
+      dependencyDirectoriesByModule.clear();
+    }
+  }
+
+  public static class PackageDirectories {
+    private final List<VirtualFile> directories;
+    private final List<String> paths;
+
+    private PackageDirectories(List<VirtualFile> directories, List<String> paths) {
+      this.directories = Collections.unmodifiableList(directories);
+      this.paths = Collections.unmodifiableList(paths);
+    }
+
+    /**
+     * @return the existing directories.
+     */
+    public List<VirtualFile> getDirectories() {
+      return directories;
+    }
+
+    /**
+     * @return the canonical paths of the directory under every applicable root, whether or not it exists.
+     */
+    public List<String> getPaths() {
+      return paths;
+    }
+  }
+
+  private static class Scope {
+    private final Module module;
+    private final boolean includeTests;
+
+    private Scope(Module module, boolean includeTests) {
+      this.module = module;
+      this.includeTests = includeTests;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) return true;
+      if (!(o instanceof Scope)) return false;
+
+      final Scope scope = (Scope) o;
+      return includeTests == scope.includeTests && module.equals(scope.module);
+    }
+
+    @Override
+    public int hashCode() {
+      return 31 * module.hashCode() + (includeTests ? 1 : 0);
+    }
+  }
+
+  private static class Root {
+    private final VirtualFile file;
+    private final String prefixPath;
+
+    private Root(VirtualFile file, String prefixPath) {
+      this.file = file;
+      this.prefixPath = prefixPath;
+    }
+  }
+}
@@ -0,0 +1,104 @@
+/*
+ * Copyright 2013 Red Hat, Inc.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package org.jboss.errai.idea.plugin.ui;
+
+import com.intellij.openapi.components.ProjectComponent;
+import com.intellij.openapi.project.Project;
+import com.intellij.psi.PsiElement;
+import com.intellij.psi.PsiFile;
+import com.intellij.psi.PsiManager;
+import com.intellij.psi.PsiTreeChangeAdapter;
+import com.intellij.psi.PsiTreeChangeEvent;
+import com.intellij.psi.xml.XmlFile;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Listens for PSI changes in templates and records where they happened, so that the cached data-fields of a
+ * template are patched by rescanning the changed subtree rather than the whole template.
+ *
+ * @author Mike Brock
+ */
+public class TemplateChangeListener extends PsiTreeChangeAdapter implements ProjectComponent {
+  private final Project project;
+
+  public TemplateChangeListener(Project project) {
+    this.project = project;
+  }
+
+  @Override
+  public void childAdded(@NotNull PsiTreeChangeEvent event) {
+    changed(event, event.getParent());
+  }
+
+  @Override
+  public void childRemoved(@NotNull PsiTreeChangeEvent event) {
+    changed(event, event.getParent());
+  }
+
+  @Override
+  public void childReplaced(@NotNull PsiTreeChangeEvent event) {
+    changed(event, event.getParent());
+  }
+
+  @Override
+  public void childrenChanged(@NotNull PsiTreeChangeEvent event) {
+    changed(event, event.getParent());
+  }
+
+  @Override
+  public void childMoved(@NotNull PsiTreeChangeEvent event) {
+    changed(event, event.getOldParent());
+    changed(event, event.getNewParent());
+  }
+
+  @Override
+  public void propertyChanged(@NotNull PsiTreeChangeEvent event) {
+    changed(event, event.getFile());
+  }
+
+  private static void changed(PsiTreeChangeEvent event, PsiElement element) {
+    final PsiFile file = event.getFile();
+    if (!(file instanceof XmlFile)) {
+      return;
+    }
+
+    TemplateUtil.markDataFieldsChanged(file, element == null ? file : element);
+  }
+
+  @Override
+  public void projectOpened() {
+    PsiManager.getInstance(project).addPsiTreeChangeListener(this, project);
+  }
+
+  @Override
+  public void projectClosed() {
+  }
+
+  @Override
+  public void initComponent() {
+  }
+
+  @Override
+  public void disposeComponent() {
+  }
+
+  @NotNull
+  @Override
+  public String getComponentName() {
+    return "ErraiTemplateChangeListener";
+  }
+}
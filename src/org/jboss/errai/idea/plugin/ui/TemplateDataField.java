@@ -16,26 +16,56 @@
 
 package org.jboss.errai.idea.plugin.ui;
 
+import com.intellij.psi.PsiFile;
 import com.intellij.psi.xml.XmlAttribute;
 import com.intellij.psi.xml.XmlTag;
+import org.jboss.errai.idea.plugin.ui.model.DataFieldKind;
 
 /**
+ * A data-field declared in a template. The tag is identified by its start offset and is looked up in the
+ * template when requested, so that holding a data-field does not keep the PSI of the template alive.
+ *
  * @author Mike Brock
  */
 public class TemplateDataField {
-  private final XmlTag tag;
+  private final PsiFile templateFile;
   private final String dataFieldName;
+  private final DataFieldKind kind;
+  private final int tagStartOffset;
+  private final int preOrder;
+  private final int postOrder;
 
-  public TemplateDataField(XmlTag tag, String dataFieldName) {
-    this.tag = tag;
+  /**
+   * @param preOrder
+   *     the position of the tag in a pre-order walk of the template.
+   * @param postOrder
+   *     the position of the tag in a post-order walk of the template, numbered from the same counter as
+   *     <tt>preOrder</tt>.
+   */
+  public TemplateDataField(PsiFile templateFile,
+                           String dataFieldName,
+                           DataFieldKind kind,
+                           int tagStartOffset,
+                           int preOrder,
+                           int postOrder) {
+    this.templateFile = templateFile;
     this.dataFieldName = dataFieldName;
+    this.kind = kind;
+    this.tagStartOffset = tagStartOffset;
+    this.preOrder = preOrder;
+    this.postOrder = postOrder;
   }
 
+  /**
+   * @return the tag declaring this data-field, or <tt>null</tt> if the template has changed and the tag is no
+   *         longer at the recorded offset.
+   */
   public XmlTag getTag() {
-    return tag;
+    return TemplateUtil.findTagAt(templateFile, tagStartOffset);
   }
 
   public void setDataField(String text) {
+    final XmlTag tag = getTag();
     if (tag != null) {
       final XmlAttribute value = tag.getAttribute("value");
       if (value != null) {
@@ -45,6 +75,7 @@ public class TemplateDataField {
   }
 
   public XmlAttribute getDataFieldAttribute() {
+    final XmlTag tag = getTag();
     if (tag != null) {
       if (tag.getAttribute("data-field") != null) {
         return tag.getAttribute("data-field");
@@ -59,11 +90,36 @@ public class TemplateDataField {
     return dataFieldName;
   }
 
+  public DataFieldKind getKind() {
+    return kind;
+  }
+
+  public int getTagStartOffset() {
+    return tagStartOffset;
+  }
+
+  public int getPreOrder() {
+    return preOrder;
+  }
+
+  public int getPostOrder() {
+    return postOrder;
+  }
+
+  /**
+   * Checks whether the tag of this data-field is nested inside the tag of the specified data-field, by comparing
+   * their positions in the template. Both data-fields must come from the same scan of the template.
+   */
+  public boolean isDescendantOf(TemplateDataField parent) {
+    return parent.preOrder < preOrder && postOrder < parent.postOrder;
+  }
+
   @Override
   public String toString() {
     return "TemplateDataField{" +
-        "tag=" + tag +
+        "tagStartOffset=" + tagStartOffset +
         ", dataFieldName='" + dataFieldName + '\'' +
+        ", kind=" + kind +
         '}';
   }
 }
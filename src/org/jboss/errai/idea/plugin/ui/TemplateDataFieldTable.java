@@ -0,0 +1,170 @@
+/*
+ * Copyright 2013 Red Hat, Inc.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package org.jboss.errai.idea.plugin.ui;
+
+import com.intellij.psi.PsiFile;
+import org.jboss.errai.idea.plugin.ui.model.DataFieldKind;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Compact record of the data-fields of a template. Each entry holds the name, the attribute kind, the text range
+ * of the tag and its tree positions in primitive arrays, so that no PSI is referenced and the template can be
+ * garbage collected while the table stays cached. Entries are ordered by the start offset of their tag.
+ *
+ * @author Mike Brock
+ */
+public class TemplateDataFieldTable {
+  private static final DataFieldKind[] KINDS = DataFieldKind.values();
+
+  private final String[] names;
+  private final int[] nameIds;
+  private final byte[] kinds;
+  private final int[] tagStartOffsets;
+  private final int[] tagEndOffsets;
+  private final int[] preOrders;
+  private final int[] postOrders;
+
+  private TemplateDataFieldTable(String[] names,
+                                 int[] nameIds,
+                                 byte[] kinds,
+                                 int[] tagStartOffsets,
+                                 int[] tagEndOffsets,
+                                 int[] preOrders,
+                                 int[] postOrders) {
+    this.names = names;
+    this.nameIds = nameIds;
+    this.kinds = kinds;
+    this.tagStartOffsets = tagStartOffsets;
+    this.tagEndOffsets = tagEndOffsets;
+    this.preOrders = preOrders;
+    this.postOrders = postOrders;
+  }
+
+  public int size() {
+    return nameIds.length;
+  }
+
+  public String getName(int i) {
+    return names[nameIds[i]];
+  }
+
+  public DataFieldKind getKind(int i) {
+    return KINDS[kinds[i]];
+  }
+
+  public int getTagStartOffset(int i) {
+    return tagStartOffsets[i];
+  }
+
+  public int getTagEndOffset(int i) {
+    return tagEndOffsets[i];
+  }
+
+  public int getPreOrder(int i) {
+    return preOrders[i];
+  }
+
+  public int getPostOrder(int i) {
+    return postOrders[i];
+  }
+
+  /**
+   * @return true if the tag of entry <tt>i</tt> is nested inside the tag of entry <tt>parent</tt>.
+   */
+  public boolean isDescendant(int i, int parent) {
+    return preOrders[parent] < preOrders[i] && postOrders[i] < postOrders[parent];
+  }
+
+  /**
+   * @return true if the tag of entry <tt>i</tt> is the tag of entry <tt>other</tt> or nested inside it.
+   */
+  public boolean isInSubtree(int i, int other) {
+    return preOrders[i] == preOrders[other] || isDescendant(i, other);
+  }
+
+  /**
+   * @return the first entry declared on the tag starting at the specified offset, or <tt>-1</tt>.
+   */
+  public int findTag(int tagStartOffset) {
+    int idx = Arrays.binarySearch(tagStartOffsets, tagStartOffset);
+    if (idx < 0) {
+      return -1;
+    }
+    while (idx > 0 && tagStartOffsets[idx - 1] == tagStartOffset) {
+      idx--;
+    }
+    return idx;
+  }
+
+  public TemplateDataField createDataField(PsiFile templateFile, int i) {
+    return new TemplateDataField(templateFile, getName(i), getKind(i), tagStartOffsets[i], preOrders[i],
+        postOrders[i]);
+  }
+
+  public static class Builder {
+    private final Map<String, Integer> nameIds = new HashMap<String, Integer>();
+    private final List<String> names = new ArrayList<String>();
+    private final List<int[]> entries = new ArrayList<int[]>();
+
+    public Builder add(String name, DataFieldKind kind, int tagStartOffset, int tagEndOffset,
+                       int preOrder, int postOrder) {
+      Integer nameId = nameIds.get(name);
+      if (nameId == null) {
+        nameIds.put(name, nameId = names.size());
+        names.add(name);
+      }
+      entries.add(new int[]{nameId, kind.ordinal(), tagStartOffset, tagEndOffset, preOrder, postOrder});
+      return this;
+    }
+
+    public TemplateDataFieldTable build() {
+      final int[][] sorted = entries.toArray(new int[entries.size()][]);
+      Arrays.sort(sorted, new Comparator<int[]>() {
+        @Override
+        public int compare(int[] a, int[] b) {
+          return a[2] < b[2] ? -1 : (a[2] == b[2] ? 0 : 1);
+        }
+      });
+
+      final int size = sorted.length;
+      final int[] nameIdArray = new int[size];
+      final byte[] kinds = new byte[size];
+      final int[] tagStartOffsets = new int[size];
+      final int[] tagEndOffsets = new int[size];
+      final int[] preOrders = new int[size];
+      final int[] postOrders = new int[size];
+
+      for (int i = 0; i < size; i++) {
+        nameIdArray[i] = sorted[i][0];
+        kinds[i] = (byte) sorted[i][1];
+        tagStartOffsets[i] = sorted[i][2];
+        tagEndOffsets[i] = sorted[i][3];
+        preOrders[i] = sorted[i][4];
+        postOrders[i] = sorted[i][5];
+      }
+
+      return new TemplateDataFieldTable(names.toArray(new String[names.size()]), nameIdArray, kinds,
+          tagStartOffsets, tagEndOffsets, preOrders, postOrders);
+    }
+  }
+}
@@ -0,0 +1,429 @@
+/*
+ * Copyright 2013 Red Hat, Inc.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package org.jboss.errai.idea.plugin.ui;
+
+import com.intellij.ProjectTopics;
+import com.intellij.openapi.components.ProjectComponent;
+import com.intellij.openapi.module.Module;
+import com.intellij.openapi.module.ModuleUtilCore;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.roots.ModuleRootAdapter;
+import com.intellij.openapi.roots.ModuleRootEvent;
+import com.intellij.openapi.roots.ProjectRootManager;
+import com.intellij.openapi.util.io.FileUtil;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.openapi.vfs.VirtualFileManager;
+import com.intellij.openapi.vfs.newvfs.BulkFileListener;
+import com.intellij.openapi.vfs.newvfs.events.VFileCopyEvent;
+import com.intellij.openapi.vfs.newvfs.events.VFileCreateEvent;
+import com.intellij.openapi.vfs.newvfs.events.VFileDeleteEvent;
+import com.intellij.openapi.vfs.newvfs.events.VFileEvent;
+import com.intellij.openapi.vfs.newvfs.events.VFileMoveEvent;
+import com.intellij.openapi.vfs.newvfs.events.VFilePropertyChangeEvent;
+import com.intellij.psi.PsiClass;
+import com.intellij.psi.PsiDirectory;
+import com.intellij.psi.PsiFile;
+import com.intellij.psi.PsiJavaFile;
+import com.intellij.util.messages.MessageBusConnection;
+import org.jboss.errai.idea.plugin.ui.index.TemplatedClassScanner;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+/**
+ * Caches the template file that a <tt>@Templated</tt> class resolves to, including failed lookups. Every file
+ * system location probed while resolving a template is remembered, and a cached result is only dropped when a
+ * file or directory is created, deleted, moved or renamed at one of those locations. The resolutions of a class
+ * are also dropped when the class file itself is deleted, moved or renamed.
+ * <p/>
+ * Templates are looked up next to the class, and then in the source and resource roots of the module containing
+ * the class, and finally in the modules and libraries it depends on (see {@link ModuleTemplateRoots}). The whole
+ * cache is dropped when the module roots change.
+ *
+ * @author Mike Brock
+ */
+public class TemplateResolutionCache implements ProjectComponent {
+  private final Project project;
+
+  private final Object lock = new Object();
+  private final Map<String, Resolution> resolutions = new HashMap<String, Resolution>();
+  private final TreeMap<String, Set<String>> keysByProbedPath = new TreeMap<String, Set<String>>();
+  private final TreeMap<String, Set<String>> keysByClassUrl = new TreeMap<String, Set<String>>();
+
+  private final ModuleTemplateRoots moduleRoots = new ModuleTemplateRoots();
+
+  private volatile long modificationCount;
+
+  public TemplateResolutionCache(Project project) {
+    this.project = project;
+  }
+
+  public static TemplateResolutionCache getInstance(Project project) {
+    return project.getComponent(TemplateResolutionCache.class);
+  }
+
+  /**
+   * Returns the template file for the specified class.
+   *
+   * @param templateClass
+   *     the top-level <tt>@Templated</tt> class.
+   * @param fileName
+   *     the template file name from the template expression.
+   *
+   * @return the template file, or <tt>null</tt> if it cannot be found.
+   */
+  public VirtualFile resolve(PsiClass templateClass, String fileName) {
+    final PsiFile containingFile = templateClass.getContainingFile().getOriginalFile();
+    final VirtualFile classFile = containingFile.getVirtualFile();
+    final PsiDirectory containerDir = containingFile.getParent();
+
+    if (containerDir == null) {
+      return null;
+    }
+
+    if (classFile == null) {
+      // in-memory class, nothing to key the cache with
+      return doResolve(containingFile, containerDir.getVirtualFile(), fileName, new ArrayList<String>());
+    }
+
+    final String key = classFile.getUrl() + '#' + fileName;
+    synchronized (lock) {
+      final Resolution resolution = resolutions.get(key);
+      if (resolution != null && (resolution.templateFile == null || resolution.templateFile.isValid())) {
+        return resolution.templateFile;
+      }
+    }
+
+    final List<String> probedPaths = new ArrayList<String>();
+    final VirtualFile templateFile = doResolve(containingFile, containerDir.getVirtualFile(), fileName, probedPaths);
+
+    synchronized (lock) {
+      remove(key);
+      resolutions.put(key, new Resolution(classFile.getUrl(), templateFile, probedPaths));
+      Set<String> classKeys = keysByClassUrl.get(classFile.getUrl());
+      if (classKeys == null) {
+        keysByClassUrl.put(classFile.getUrl(), classKeys = new HashSet<String>());
+      }
+      classKeys.add(key);
+      for (String path : probedPaths) {
+        Set<String> keys = keysByProbedPath.get(path);
+        if (keys == null) {
+          keysByProbedPath.put(path, keys = new HashSet<String>());
+        }
+        keys.add(key);
+      }
+    }
+    return templateFile;
+  }
+
+  /**
+   * @return a counter which is incremented every time cached resolutions are dropped, so that anything derived
+   *         from a resolved template can tell whether the template of a class may have changed.
+   */
+  public long getModificationCount() {
+    return modificationCount;
+  }
+
+  private VirtualFile doResolve(PsiFile containingFile,
+                                VirtualFile containerDir,
+                                String fileName,
+                                List<String> probedPaths) {
+
+    probedPaths.add(probedPath(containerDir.getPath(), fileName));
+    VirtualFile fileByRelativePath = containerDir.findFileByRelativePath(fileName);
+    if (fileByRelativePath != null && !fileByRelativePath.isDirectory()) {
+      return fileByRelativePath;
+    }
+
+    final Module module = ModuleUtilCore.findModuleForPsiElement(containingFile);
+    if (module == null) {
+      return null;
+    }
+
+    // test resources and test-scoped dependencies are not on the classpath of a production class
+    final boolean includeTests
+        = ProjectRootManager.getInstance(project).getFileIndex().isInTestSourceContent(containerDir);
+
+    // locate file in the current module for /absolute/path/Template.html
+    fileByRelativePath = resolveInModule(module, TemplatedClassScanner.getTemplatePath("", fileName), false,
+        includeTests, probedPaths);
+
+    // if we didn't find the file in the current container, it might be located in a resource folder
+    // of the module (src/main/resources for maven projects)
+    if (fileByRelativePath == null && containingFile instanceof PsiJavaFile) {
+      final String packageName = ((PsiJavaFile) containingFile).getPackageName();
+      fileByRelativePath = resolveInModule(module,
+          TemplatedClassScanner.getTemplatePath(packageName, fileName), false, includeTests, probedPaths);
+    }
+
+    // finally look through the classpath of the module, for templates shipped in dependencies and library JARs
+    if (fileByRelativePath == null) {
+      fileByRelativePath = resolveInModule(module, TemplatedClassScanner.getTemplatePath("", fileName), true,
+          includeTests, probedPaths);
+    }
+    if (fileByRelativePath == null && containingFile instanceof PsiJavaFile) {
+      final String packageName = ((PsiJavaFile) containingFile).getPackageName();
+      fileByRelativePath = resolveInModule(module,
+          TemplatedClassScanner.getTemplatePath(packageName, fileName), true, includeTests, probedPaths);
+    }
+
+    return fileByRelativePath;
+  }
+
+  private VirtualFile resolveInModule(Module module,
+                                      String templatePath,
+                                      boolean dependencies,
+                                      boolean includeTests,
+                                      List<String> probedPaths) {
+    final int idx = templatePath.lastIndexOf('/');
+    final String name = templatePath.substring(idx + 1);
+    if (name.length() == 0) {
+      return null;
+    }
+
+    final String relativePath = idx == -1 ? "" : templatePath.substring(0, idx);
+    final ModuleTemplateRoots.PackageDirectories directories = dependencies
+        ? moduleRoots.getDependencyDirectories(module, relativePath, includeTests)
+        : moduleRoots.getDirectories(module, relativePath, includeTests);
+
+    for (String path : directories.getPaths()) {
+      probedPaths.add(probedPath(path, name));
+    }
+    for (VirtualFile directory : directories.getDirectories()) {
+      final VirtualFile file = directory.findChild(name);
+      if (file != null && !file.isDirectory()) {
+        return file;
+      }
+    }
+    return null;
+  }
+
+  private static String probedPath(String directory, String fileName) {
+    return FileUtil.toCanonicalPath(directory + "/" + fileName);
+  }
+
+  private void remove(String key) {
+    final Resolution resolution = resolutions.remove(key);
+    if (resolution == null) {
+      return;
+    }
+
+    for (String path : resolution.probedPaths) {
+      final Set<String> keys = keysByProbedPath.get(path);
+      if (keys != null) {
+        keys.remove(key);
+        if (keys.isEmpty()) {
+          keysByProbedPath.remove(path);
+        }
+      }
+    }
+
+    final Set<String> classKeys = keysByClassUrl.get(resolution.classUrl);
+    if (classKeys != null) {
+      classKeys.remove(key);
+      if (classKeys.isEmpty()) {
+        keysByClassUrl.remove(resolution.classUrl);
+      }
+    }
+  }
+
+  /**
+   * Drops the cached resolutions of the classes in the specified file, or in any file beneath the specified
+   * directory, when it is deleted, moved or renamed. The resolutions are keyed by the URL of the class file, so
+   * they would never be looked up again.
+   */
+  private void forgetClasses(VirtualFile file) {
+    if (file == null) {
+      return;
+    }
+
+    final String url = file.getUrl();
+    synchronized (lock) {
+      if (resolutions.isEmpty()) {
+        return;
+      }
+
+      final Set<String> affected = new HashSet<String>();
+      final Set<String> exact = keysByClassUrl.get(url);
+      if (exact != null) {
+        affected.addAll(exact);
+      }
+
+      if (file.isDirectory()) {
+        for (Set<String> keys : keysByClassUrl.subMap(url + "/", url + "/\uffff").values()) {
+          affected.addAll(keys);
+        }
+      }
+
+      for (String key : affected) {
+        remove(key);
+      }
+      if (!affected.isEmpty()) {
+        modificationCount++;
+      }
+    }
+  }
+
+  /**
+   * Drops every cached resolution that probed the specified path, or any path beneath it.
+   */
+  private void invalidate(String path) {
+    if (path == null) {
+      return;
+    }
+
+    final String canonicalPath = FileUtil.toCanonicalPath(path);
+    synchronized (lock) {
+      if (resolutions.isEmpty()) {
+        return;
+      }
+
+      final Set<String> affected = new HashSet<String>();
+      final Set<String> exact = keysByProbedPath.get(canonicalPath);
+      if (exact != null) {
+        affected.addAll(exact);
+      }
+
+      final SortedMap<String, Set<String>> nested
+          = keysByProbedPath.subMap(canonicalPath + "/", canonicalPath + "/\uffff");
+      for (Set<String> keys : nested.values()) {
+        affected.addAll(keys);
+      }
+
+      // entries probed inside a JAR file
+      final SortedMap<String, Set<String>> archived
+          = keysByProbedPath.subMap(canonicalPath + "!/", canonicalPath + "!/\uffff");
+      for (Set<String> keys : archived.values()) {
+        affected.addAll(keys);
+      }
+
+      for (String key : affected) {
+        remove(key);
+      }
+      if (!affected.isEmpty()) {
+        modificationCount++;
+      }
+    }
+  }
+
+  public void clear() {
+    synchronized (lock) {
+      resolutions.clear();
+      keysByProbedPath.clear();
+      keysByClassUrl.clear();
+      modificationCount++;
+    }
+  }
+
+  @Override
+  public void projectOpened() {
+    final MessageBusConnection connection = project.getMessageBus().connect(project);
+
+    connection.subscribe(ProjectTopics.PROJECT_ROOTS, new ModuleRootAdapter() {
+      @Override
+      public void rootsChanged(ModuleRootEvent event) {
+        moduleRoots.clear();
+        clear();
+      }
+    });
+
+    connection.subscribe(VirtualFileManager.VFS_CHANGES, new BulkFileListener() {
+      @Override
+      public void before(@NotNull List<? extends VFileEvent> events) {
+        for (VFileEvent event : events) {
+          if (event instanceof VFileDeleteEvent || event instanceof VFileMoveEvent || isRename(event)) {
+            if (isDirectory(event.getFile())) {
+              moduleRoots.directoriesChanged();
+            }
+            invalidate(event.getPath());
+            forgetClasses(event.getFile());
+          }
+        }
+      }
+
+      @Override
+      public void after(@NotNull List<? extends VFileEvent> events) {
+        for (VFileEvent event : events) {
+          if (event instanceof VFileCreateEvent || event instanceof VFileCopyEvent) {
+            if (event instanceof VFileCreateEvent ? ((VFileCreateEvent) event).isDirectory()
+                : isDirectory(event.getFile())) {
+              moduleRoots.directoriesChanged();
+            }
+            invalidate(event.getPath());
+          }
+          else if (event instanceof VFileMoveEvent || isRename(event)) {
+            final VirtualFile file = event.getFile();
+            if (file != null) {
+              if (file.isDirectory()) {
+                moduleRoots.directoriesChanged();
+              }
+              invalidate(file.getPath());
+            }
+          }
+        }
+      }
+    });
+  }
+
+  private static boolean isDirectory(VirtualFile file) {
+    return file != null && file.isDirectory();
+  }
+
+  private static boolean isRename(VFileEvent event) {
+    return event instanceof VFilePropertyChangeEvent
+        && VirtualFile.PROP_NAME.equals(((VFilePropertyChangeEvent) event).getPropertyName());
+  }
+
+  @Override
+  public void projectClosed() {
+    moduleRoots.clear();
+    clear();
+  }
+
+  @Override
+  public void initComponent() {
+  }
+
+  @Override
+  public void disposeComponent() {
+  }
+
+  @NotNull
+  @Override
+  public String getComponentName() {
+    return "ErraiTemplateResolutionCache";
+  }
+
+  private static class Resolution {
+    private final String classUrl;
+    private final VirtualFile templateFile;
+    private final List<String> probedPaths;
+
+    private Resolution(String classUrl, VirtualFile templateFile, List<String> probedPaths) {
+      this.classUrl = classUrl;
+      this.templateFile = templateFile;
+      this.probedPaths = probedPaths;
+    }
+  }
+}
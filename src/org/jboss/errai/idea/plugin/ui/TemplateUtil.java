@@ -16,30 +16,39 @@
 
 package org.jboss.errai.idea.plugin.ui;
 
-import com.google.common.collect.HashMultimap;
 import com.google.common.collect.ImmutableMultimap;
+import com.google.common.collect.ImmutableSetMultimap;
 import com.google.common.collect.Multimap;
 import com.intellij.openapi.project.Project;
-import com.intellij.openapi.roots.ProjectRootManager;
 import com.intellij.openapi.util.Key;
-import com.intellij.openapi.vfs.LocalFileSystem;
+import com.intellij.openapi.util.TextRange;
 import com.intellij.openapi.vfs.VirtualFile;
 import com.intellij.psi.*;
 import com.intellij.psi.search.GlobalSearchScope;
 import com.intellij.psi.search.searches.ClassInheritorsSearch;
+import com.intellij.psi.util.PsiModificationTracker;
+import com.intellij.psi.util.PsiTreeUtil;
 import com.intellij.psi.util.PsiUtil;
 import com.intellij.psi.xml.XmlAttribute;
 import com.intellij.psi.xml.XmlAttributeValue;
 import com.intellij.psi.xml.XmlFile;
 import com.intellij.psi.xml.XmlTag;
+import com.intellij.util.text.CharArrayUtil;
+import org.jboss.errai.idea.plugin.ui.index.IndexedDataField;
+import org.jboss.errai.idea.plugin.ui.index.TemplateDataFieldIndex;
+import org.jboss.errai.idea.plugin.ui.index.TemplateDataFieldScanner;
+import org.jboss.errai.idea.plugin.ui.index.TemplateOwnerIndex;
+import org.jboss.errai.idea.plugin.ui.index.TemplatedClassIndex;
+import org.jboss.errai.idea.plugin.ui.index.TemplatedClassInfo;
 import org.jboss.errai.idea.plugin.ui.model.ConsolidateDataFieldElementResult;
+import org.jboss.errai.idea.plugin.ui.model.ConsolidatedDataFieldsCacheHolder;
 import org.jboss.errai.idea.plugin.ui.model.DataFieldCacheHolder;
+import org.jboss.errai.idea.plugin.ui.model.DataFieldKind;
 import org.jboss.errai.idea.plugin.ui.model.TemplateExpression;
 import org.jboss.errai.idea.plugin.ui.model.TemplateMetaData;
 import org.jboss.errai.idea.plugin.util.*;
 import org.jetbrains.annotations.NotNull;
 
-import java.io.File;
 import java.util.*;
 
 import static com.intellij.psi.search.GlobalSearchScope.projectScope;
@@ -53,14 +62,29 @@ public class TemplateUtil {
   public static final String CLASS_ATTRIBUTE = "class";
 
   private static final Key<DataFieldCacheHolder> dataFieldsCacheKey = Key.create("dataFieldsCache");
+  private static final Key<ConsolidatedDataFieldsCacheHolder> consolidatedDataFieldsCacheKey
+      = Key.create("consolidatedDataFieldsCache");
 
-  public static DataFieldExistence dataFieldExistenceCheck(PsiAnnotation annotation, TemplateMetaData metaData) {
-    final Multimap<String, TemplateDataField> inScopeDataFields = metaData.getAllDataFieldsInTemplate(false);
-    final Map<String, ConsolidateDataFieldElementResult> dataFields = metaData.getConsolidatedDataFields();
+  /**
+   * Distance between consecutive tree positions assigned by a full scan, leaving room to number the tags of a
+   * rescanned subtree without renumbering the rest of the template.
+   */
+  private static final int TREE_POSITION_GAP = 1 << 10;
 
+  public static DataFieldExistence dataFieldExistenceCheck(PsiAnnotation annotation, TemplateMetaData metaData) {
     final AnnotationValueElement annoValueEl = Util.getValueStringFromAnnotationWithDefault(annotation);
-    final String annoValue = annoValueEl.getValue();
 
+    return dataFieldExistenceCheck(annoValueEl.getValue(), metaData.getAllDataFieldsInTemplate(false),
+        metaData.getConsolidatedDataFields());
+  }
+
+  /**
+   * Checks the existence of a data-field against data-fields which were already looked up, so that many
+   * data-fields of the same class can be checked without looking them up again.
+   */
+  public static DataFieldExistence dataFieldExistenceCheck(String annoValue,
+                                                           Multimap<String, TemplateDataField> inScopeDataFields,
+                                                           Map<String, ConsolidateDataFieldElementResult> dataFields) {
     final Collection<TemplateDataField> result = inScopeDataFields.get(annoValue);
     if (result.isEmpty()) {
       if (dataFields.containsKey(annoValue)) {
@@ -130,12 +154,7 @@ public class TemplateUtil {
   public static Multimap<String, TemplateDataField> findAllDataFieldTags(TemplateMetaData templateMetaData,
                                                                          Project project,
                                                                          boolean includeRoot) {
-    if (!templateMetaData.getTemplateExpression().hasRootNode()) {
-      includeRoot = true;
-    }
-
     VirtualFile vf = templateMetaData.getTemplateFile();
-    XmlTag rootTag = templateMetaData.getRootTag();
     if (vf == null) {
       return ImmutableMultimap.of();
     }
@@ -147,18 +166,11 @@ public class TemplateUtil {
       return ImmutableMultimap.of();
     }
 
-    final XmlFile xmlFile = (XmlFile) file;
-    if (rootTag == null) {
-      rootTag = xmlFile.getRootTag();
-    }
-
-    return findAllDataFieldTags(file, rootTag, includeRoot);
+    return findAllDataFieldTags(file, templateMetaData.getTemplateExpression().getRootNode(), includeRoot);
   }
 
   private static Multimap<String, TemplateDataField> findAllDataFieldTags(VirtualFile vf,
-                                                                          XmlTag rootTag,
-                                                                          Project project,
-                                                                          boolean includeRoot) {
+                                                                          Project project) {
     if (vf == null) {
       return ImmutableMultimap.of();
     }
@@ -168,115 +180,476 @@ public class TemplateUtil {
 
     if (file == null) {
       return ImmutableMultimap.of();
+    }
+
+    return getDataFieldCache(file).getValue();
+  }
 
+  /**
+   * Returns the data-fields of the specified template that are in scope for the specified root node. The result
+   * is a shared, immutable snapshot which must not be modified.
+   *
+   * @param rootNode
+   *     the root node of the template expression, or an empty string if the whole template is used.
+   * @param includeRoot
+   *     if <tt>true</tt>, the root node does not restrict the result, and all data-fields of the template are
+   *     returned.
+   */
+  @NotNull
+  public static Multimap<String, TemplateDataField> findAllDataFieldTags(PsiFile templateFile,
+                                                                         String rootNode,
+                                                                         boolean includeRoot) {
+    final DataFieldCacheHolder holder = getDataFieldCache(templateFile);
+    if (includeRoot || rootNode.length() == 0) {
+      return holder.getValue();
     }
 
-    if (rootTag == null) {
-      rootTag = ((XmlFile) file).getRootTag();
+    final ImmutableMultimap<String, TemplateDataField> scopedView = holder.getScopedView(rootNode);
+    if (scopedView != null) {
+      return scopedView;
     }
-    else {
+
+    final TemplateDataFieldTable table = holder.getTable();
+    for (int i = 0; i < table.size(); i++) {
+      if (table.getName(i).equals(rootNode)) {
+        return holder.putScopedView(rootNode, getScopedDataFields(holder, i));
+      }
     }
 
-    return findAllDataFieldTags(file, rootTag, includeRoot);
+    final XmlTag rootTag = templateFile instanceof XmlFile ? ((XmlFile) templateFile).getRootTag() : null;
+    return holder.putScopedView(rootNode, getScopedDataFields(holder, rootTag));
   }
 
+  /**
+   * Returns the data-fields of the specified template. The result is a shared, immutable snapshot which must
+   * not be modified. Unlike {@link #findAllDataFieldTags(PsiFile, String, boolean)}, views scoped to an arbitrary
+   * tag are not cached.
+   */
   @NotNull
   public static Multimap<String, TemplateDataField> findAllDataFieldTags(final PsiFile templateFile,
                                                                          final XmlTag rootTag,
                                                                          final boolean includeRoot) {
-    final Multimap<String, TemplateDataField> value
-        = Util.getOrCreateCache(dataFieldsCacheKey, templateFile, new CacheProvider<DataFieldCacheHolder>() {
+    final DataFieldCacheHolder holder = getDataFieldCache(templateFile);
+    if (includeRoot) {
+      return holder.getValue();
+    }
+    return getScopedDataFields(holder, rootTag);
+  }
+
+  /**
+   * Returns the cached data-fields of the whole template, which are always scanned from the root tag of the file.
+   */
+  private static DataFieldCacheHolder getDataFieldCache(final PsiFile templateFile) {
+    return Util.getOrCreateCache(dataFieldsCacheKey, templateFile, new CacheProvider<DataFieldCacheHolder>() {
       @Override
       public DataFieldCacheHolder provide() {
-        final Multimap<String, TemplateDataField> allDataFieldTags = findAllDataFieldTags(rootTag, includeRoot);
-        return new DataFieldCacheHolder(templateFile.getModificationStamp(), allDataFieldTags);
+        final PsiFile originalFile = templateFile.getOriginalFile();
+        final DataFieldCacheHolder previous = originalFile.getCopyableUserData(dataFieldsCacheKey);
+        if (previous != null) {
+          final TemplateDataFieldTable patched = rescanChangedSubtrees(originalFile, previous);
+          if (patched != null) {
+            return new DataFieldCacheHolder(templateFile.getModificationStamp(), originalFile, patched);
+          }
+        }
+
+        TemplateDataFieldTable table = findDataFieldTagsFromIndex(originalFile);
+        if (table == null) {
+          table = buildDataFieldTable(
+              TemplateDataFieldScanner.scan(originalFile.getViewProvider().getContents()));
+        }
+        return new DataFieldCacheHolder(templateFile.getModificationStamp(), originalFile, table);
       }
 
       @Override
       public boolean isCacheValid(DataFieldCacheHolder dataFieldCacheHolder) {
-        return dataFieldCacheHolder.getTime() == templateFile.getModificationStamp();
+        return dataFieldCacheHolder.getTime() == templateFile.getModificationStamp()
+            && !dataFieldCacheHolder.isChanged();
       }
-    }).getValue();
+    });
+  }
 
-    final Multimap<String, TemplateDataField> templateDataFields = HashMultimap.create(value);
-    Iterator<TemplateDataField> iterator = templateDataFields.values().iterator();
-    final PsiElement rootElement = rootTag.getOriginalElement();
+  /**
+   * Records a PSI change in a template, so that the next lookup of its data-fields only rescans the subtree
+   * containing the change.
+   */
+  static void markDataFieldsChanged(PsiFile templateFile, PsiElement changed) {
+    final DataFieldCacheHolder holder = templateFile.getOriginalFile().getCopyableUserData(dataFieldsCacheKey);
+    if (holder != null) {
+      holder.markChanged(changed);
+    }
+  }
+
+  /**
+   * Brings the data-fields of a changed template up to date by rescanning only the changed subtrees. Every
+   * other data-field keeps its tree positions, and its offsets are shifted by the change in length of the
+   * changed subtrees before it.
+   *
+   * @return the updated data-fields, or <tt>null</tt> if the whole template has to be rescanned.
+   */
+  private static TemplateDataFieldTable rescanChangedSubtrees(PsiFile templateFile, DataFieldCacheHolder previous) {
+    final Map<Integer, Integer> changed = previous.getChangedSubtrees();
+    if (changed == null) {
+      return null;
+    }
 
-    while (iterator.hasNext()) {
-      TemplateDataField field = iterator.next();
-      final PsiElement originalElement = field.getTag().getOriginalElement();
+    final TemplateDataFieldTable table = previous.getTable();
+    final TemplateDataFieldTable.Builder builder = new TemplateDataFieldTable.Builder();
 
-      if (!includeRoot && !Util.isChild(originalElement, rootElement)) {
-        iterator.remove();
+    outer:
+    for (int i = 0; i < table.size(); i++) {
+      for (int subtree : changed.keySet()) {
+        if (table.isInSubtree(i, subtree)) {
+          continue outer;
+        }
       }
 
+      builder.add(table.getName(i), table.getKind(i),
+          shiftOffset(table, changed, table.getTagStartOffset(i)),
+          shiftOffset(table, changed, table.getTagEndOffset(i)),
+          table.getPreOrder(i), table.getPostOrder(i));
     }
-    return templateDataFields;
+
+    for (Map.Entry<Integer, Integer> entry : changed.entrySet()) {
+      final int subtree = entry.getKey();
+
+      // the recorded end offset of a tag closed implicitly may not match the PSI, which would shift every
+      // following offset by the difference, so check the first tag after the subtree
+      following:
+      for (int i = subtree + 1; i < table.size(); i++) {
+        if (table.getTagStartOffset(i) < table.getTagEndOffset(subtree)) {
+          continue;
+        }
+        for (int other : changed.keySet()) {
+          if (table.isInSubtree(i, other)) {
+            continue following;
+          }
+        }
+
+        if (findTagAt(templateFile, shiftOffset(table, changed, table.getTagStartOffset(i))) == null) {
+          return null;
+        }
+        break;
+      }
+
+      final XmlTag tag = findTagAt(templateFile, shiftOffset(table, changed, table.getTagStartOffset(subtree)));
+      if (tag == null || tag.getTextRange().getEndOffset() != entry.getValue()) {
+        return null;
+      }
+
+      if (!_rescanSubtree(builder, tag, table.getPreOrder(subtree), table.getPostOrder(subtree))) {
+        return null;
+      }
+    }
+    return builder.build();
+  }
+
+  private static int shiftOffset(TemplateDataFieldTable table, Map<Integer, Integer> changed, int offset) {
+    int shifted = offset;
+    for (Map.Entry<Integer, Integer> entry : changed.entrySet()) {
+      final int endOffset = table.getTagEndOffset(entry.getKey());
+      if (endOffset <= offset) {
+        shifted += entry.getValue() - endOffset;
+      }
+    }
+    return shifted;
+  }
+
+  /**
+   * @return the tag starting at the specified offset of the template, or <tt>null</tt>.
+   */
+  public static XmlTag findTagAt(PsiFile templateFile, int tagStartOffset) {
+    final XmlTag tag = PsiTreeUtil.getParentOfType(templateFile.findElementAt(tagStartOffset), XmlTag.class, false);
+    if (tag == null || tag.getTextRange().getStartOffset() != tagStartOffset) {
+      return null;
+    }
+    return tag;
   }
 
-  private static Multimap<String, TemplateDataField> findAllDataFieldTags(XmlTag rootTag, boolean includeRoot) {
-    Multimap<String, TemplateDataField> references = HashMultimap.create();
+  private static ImmutableMultimap<String, TemplateDataField> getScopedDataFields(DataFieldCacheHolder holder,
+                                                                                 int rootEntry) {
+    final TemplateDataFieldTable table = holder.getTable();
+    final ImmutableMultimap<String, TemplateDataField> value = holder.getValue();
+    final ImmutableSetMultimap.Builder<String, TemplateDataField> builder = ImmutableSetMultimap.builder();
+    for (int i = 0; i < table.size(); i++) {
+      if (table.isDescendant(i, rootEntry)) {
+        final String name = table.getName(i);
+        for (TemplateDataField field : value.get(name)) {
+          if (field.getTagStartOffset() == table.getTagStartOffset(i) && field.getKind() == table.getKind(i)) {
+            builder.put(name, field);
+          }
+        }
+      }
+    }
+    return builder.build();
+  }
+
+  private static ImmutableMultimap<String, TemplateDataField> getScopedDataFields(DataFieldCacheHolder holder,
+                                                                                 XmlTag rootTag) {
     if (rootTag == null) {
-      return references;
+      return ImmutableMultimap.of();
     }
 
-    if (includeRoot && rootTag.getAttribute(DATA_FIELD_TAG_ATTRIBUTE) != null ||
-        rootTag.getAttribute(ID_ATTRIBUTE) != null ||
-        rootTag.getAttribute(CLASS_ATTRIBUTE) != null) {
-      final XmlAttribute attribute;
-      if (rootTag.getAttribute(DATA_FIELD_TAG_ATTRIBUTE) != null) {
-        attribute = rootTag.getAttribute(DATA_FIELD_TAG_ATTRIBUTE);
-      } else if (rootTag.getAttribute(ID_ATTRIBUTE) != null) {
-        attribute = rootTag.getAttribute(ID_ATTRIBUTE);
-      } else {
-        attribute = rootTag.getAttribute(CLASS_ATTRIBUTE);
+    final int rootEntry = holder.getTable().findTag(rootTag.getTextRange().getStartOffset());
+    if (rootEntry != -1) {
+      return getScopedDataFields(holder, rootEntry);
+    }
+
+    // the root tag does not carry a data-field, so it has no tree positions to compare with
+    final PsiElement rootElement = rootTag.getOriginalElement();
+    final ImmutableSetMultimap.Builder<String, TemplateDataField> builder = ImmutableSetMultimap.builder();
+    for (Map.Entry<String, TemplateDataField> entry : holder.getValue().entries()) {
+      final XmlTag tag = entry.getValue().getTag();
+      if (tag != null && Util.isChild(tag.getOriginalElement(), rootElement)) {
+        builder.put(entry.getKey(), entry.getValue());
       }
+    }
+    return builder.build();
+  }
 
-      if (attribute == null) {
-        return references;
+  /**
+   * Builds the data-fields of the specified template from the {@link TemplateDataFieldIndex}, without walking
+   * the PSI of the template.
+   *
+   * @return the data-fields of the whole template, or <tt>null</tt> if the index is unavailable or out of sync
+   *         with the text of the template.
+   */
+  private static TemplateDataFieldTable findDataFieldTagsFromIndex(PsiFile templateFile) {
+    final VirtualFile vf = templateFile.getVirtualFile();
+    if (vf == null) {
+      return null;
+    }
+
+    final List<IndexedDataField> indexedDataFields = TemplateDataFieldIndex.getDataFields(templateFile.getProject(), vf);
+    if (indexedDataFields == null) {
+      return null;
+    }
+
+    final CharSequence text = templateFile.getViewProvider().getContents();
+    for (IndexedDataField indexedDataField : indexedDataFields) {
+      if (!isIndexedTag(text, indexedDataField)) {
+        return null;
       }
+    }
+    return buildDataFieldTable(indexedDataFields);
+  }
 
-      final String values = attribute.getValue();
-      if (values != null) {
-        StringTokenizer tokenizer = new StringTokenizer(values, " ");
-        while (tokenizer.hasMoreTokens()) {
-          String value = tokenizer.nextToken();
-          if (value != null && value.trim().length() > 0) {
-            references.put(value, new TemplateDataField(rootTag, value));
-          }
+  /**
+   * Checks that the offsets of an indexed data-field still point at a start tag which carries the indexed
+   * attribute and value, so that an index entry out of sync with the text is never trusted.
+   */
+  private static boolean isIndexedTag(CharSequence text, IndexedDataField indexedDataField) {
+    final int start = indexedDataField.getTagStartOffset();
+    final int end = indexedDataField.getTagEndOffset();
+    if (start < 0 || end > text.length() || start >= end || text.charAt(start) != '<') {
+      return false;
+    }
+
+    // the start tag ends at the first '>' which is not inside a quoted attribute value
+    int startTagEnd = start + 1;
+    char quote = 0;
+    for (; startTagEnd < end; startTagEnd++) {
+      final char c = text.charAt(startTagEnd);
+      if (quote != 0) {
+        if (c == quote) {
+          quote = 0;
         }
       }
+      else if (c == '"' || c == '\'') {
+        quote = c;
+      }
+      else if (c == '>') {
+        break;
+      }
+    }
+
+    return containsInRange(text, indexedDataField.getKind().getAttributeName(), start, startTagEnd)
+        && containsInRange(text, indexedDataField.getName(), start, startTagEnd);
+  }
+
+  private static boolean containsInRange(CharSequence text, String s, int start, int end) {
+    for (int i = start; i + s.length() <= end; i++) {
+      if (CharArrayUtil.regionMatches(text, i, s)) {
+        return true;
+      }
     }
-    _findDataFieldTags(references, rootTag);
-    return references;
+    return false;
   }
 
-  private static void _findDataFieldTags(Multimap<String, TemplateDataField> foundTags, XmlTag root) {
-    PsiElement n = root;
-    do {
-      if (!(n instanceof XmlTag)) {
+  private static TemplateDataFieldTable buildDataFieldTable(List<IndexedDataField> dataFields) {
+    final Map<Integer, int[]> treePositions = getTreePositions(dataFields);
+    final TemplateDataFieldTable.Builder builder = new TemplateDataFieldTable.Builder();
+    for (IndexedDataField dataField : dataFields) {
+      final int[] position = treePositions.get(dataField.getTagStartOffset());
+      builder.add(dataField.getName(), dataField.getKind(), dataField.getTagStartOffset(),
+          dataField.getTagEndOffset(), position[0], position[1]);
+    }
+    return builder.build();
+  }
+
+  /**
+   * Numbers the tags of the indexed data-fields in pre-order and post-order from one counter, using their offsets
+   * to recover the nesting. The numbering only covers tags carrying data-fields, which is enough to compare them
+   * with each other.
+   *
+   * @return the pre-order and post-order positions, keyed by the start offset of the tag.
+   */
+  private static Map<Integer, int[]> getTreePositions(List<IndexedDataField> indexedDataFields) {
+    final List<IndexedDataField> tags = new ArrayList<IndexedDataField>(indexedDataFields);
+    Collections.sort(tags, new Comparator<IndexedDataField>() {
+      @Override
+      public int compare(IndexedDataField a, IndexedDataField b) {
+        if (a.getTagStartOffset() != b.getTagStartOffset()) {
+          return a.getTagStartOffset() < b.getTagStartOffset() ? -1 : 1;
+        }
+        return 0;
+      }
+    });
+
+    final Map<Integer, int[]> positions = new HashMap<Integer, int[]>();
+    final Deque<IndexedDataField> open = new ArrayDeque<IndexedDataField>();
+    int counter = 0;
+
+    for (IndexedDataField tag : tags) {
+      if (positions.containsKey(tag.getTagStartOffset())) {
         continue;
       }
-      _scanSubTags(foundTags, (XmlTag) n);
+      while (!open.isEmpty() && !tag.isDescendantOf(open.peek())) {
+        positions.get(open.pop().getTagStartOffset())[1] = counter;
+        counter += TREE_POSITION_GAP;
+      }
+      positions.put(tag.getTagStartOffset(), new int[]{counter, -1});
+      counter += TREE_POSITION_GAP;
+      open.push(tag);
     }
-    while ((n = n.getNextSibling()) != null);
+    while (!open.isEmpty()) {
+      positions.get(open.pop().getTagStartOffset())[1] = counter;
+      counter += TREE_POSITION_GAP;
+    }
+    return positions;
   }
 
-  private static void _scanSubTags(Multimap<String, TemplateDataField> foundTags, XmlTag root) {
-    _scanTag(foundTags, root);
+  /**
+   * Finds all data-fields for the specified {@link TemplateMetaData} using only the {@link TemplateDataFieldIndex},
+   * without loading the PSI of the template. The <tt>includeRoot</tt> parameter has the same meaning as in
+   * {@link #findAllDataFieldTags(TemplateMetaData, Project, boolean)}.
+   *
+   * @return the data-fields in scope, or <tt>null</tt> if the index cannot answer and the caller should fall back
+   *         to {@link #findAllDataFieldTags(TemplateMetaData, Project, boolean)}.
+   */
+  public static Collection<IndexedDataField> findIndexedDataFields(TemplateMetaData templateMetaData,
+                                                                   boolean includeRoot) {
+    final VirtualFile vf = templateMetaData.getTemplateFile();
+    if (vf == null) {
+      return Collections.emptyList();
+    }
+
+    final List<IndexedDataField> indexedDataFields
+        = TemplateDataFieldIndex.getDataFields(templateMetaData.getProject(), vf);
+    if (indexedDataFields == null) {
+      return null;
+    }
+
+    final TemplateExpression expression = templateMetaData.getTemplateExpression();
+    if (includeRoot || !expression.hasRootNode()) {
+      return indexedDataFields;
+    }
+
+    IndexedDataField root = null;
+    for (IndexedDataField field : indexedDataFields) {
+      if (field.getName().equals(expression.getRootNode())) {
+        root = field;
+        break;
+      }
+    }
+
+    if (root == null) {
+      return Collections.emptyList();
+    }
+
+    final List<IndexedDataField> inScope = new ArrayList<IndexedDataField>();
+    for (IndexedDataField field : indexedDataFields) {
+      if (field.isDescendantOf(root)) {
+        inScope.add(field);
+      }
+    }
+    return inScope;
+  }
+
+  /**
+   * Checks whether a data-field with the specified name is declared anywhere in the template of the specified
+   * {@link TemplateMetaData}.
+   */
+  public static boolean templateContainsDataField(TemplateMetaData templateMetaData, String dataFieldName) {
+    final Collection<IndexedDataField> indexedDataFields = findIndexedDataFields(templateMetaData, true);
+    if (indexedDataFields == null) {
+      return templateMetaData.getAllDataFieldsInTemplate(true).containsKey(dataFieldName);
+    }
+
+    for (IndexedDataField field : indexedDataFields) {
+      if (field.getName().equals(dataFieldName)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * @param counter
+   *     the next tree position to assign, followed by the distance between consecutive positions.
+   */
+  private static void _scanSubTags(TemplateDataFieldTable.Builder foundTags, XmlTag root, int[] counter) {
+    final int preOrder = counter[0];
+    counter[0] += counter[1];
     for (XmlTag xmlTag : root.getSubTags()) {
-      _scanSubTags(foundTags, xmlTag);
+      _scanSubTags(foundTags, xmlTag, counter);
     }
+    _scanTag(foundTags, root, preOrder, counter[0]);
+    counter[0] += counter[1];
   }
 
-  private static void _scanTag(Multimap<String, TemplateDataField> foundTags, XmlTag xmlTag) {
-    _scanTag(foundTags, xmlTag, DATA_FIELD_TAG_ATTRIBUTE);
-    _scanTag(foundTags, xmlTag, ID_ATTRIBUTE);
-    _scanTag(foundTags, xmlTag, CLASS_ATTRIBUTE);
+  /**
+   * Rescans the subtree of a tag, keeping the tree positions of the tag itself and fitting the positions of its
+   * descendants between them.
+   *
+   * @return <tt>false</tt> if there is no room left between the positions of the tag.
+   */
+  private static boolean _rescanSubtree(TemplateDataFieldTable.Builder foundTags, XmlTag root,
+                                        int preOrder, int postOrder) {
+    final int descendants = _countSubTags(root);
+    if (descendants > 0) {
+      final int step = (postOrder - preOrder) / (2 * descendants + 1);
+      if (step < 1) {
+        return false;
+      }
+
+      final int[] counter = new int[]{preOrder + step, step};
+      for (XmlTag xmlTag : root.getSubTags()) {
+        _scanSubTags(foundTags, xmlTag, counter);
+      }
+    }
+    _scanTag(foundTags, root, preOrder, postOrder);
+    return true;
+  }
+
+  private static int _countSubTags(XmlTag root) {
+    int count = 0;
+    for (XmlTag xmlTag : root.getSubTags()) {
+      count += 1 + _countSubTags(xmlTag);
+    }
+    return count;
+  }
+
+  private static void _scanTag(TemplateDataFieldTable.Builder foundTags, XmlTag xmlTag,
+                               int preOrder, int postOrder) {
+    final TextRange range = xmlTag.getTextRange();
+    _scanTag(foundTags, xmlTag, DataFieldKind.DATA_FIELD, range, preOrder, postOrder);
+    _scanTag(foundTags, xmlTag, DataFieldKind.ID, range, preOrder, postOrder);
+    _scanTag(foundTags, xmlTag, DataFieldKind.CLASS, range, preOrder, postOrder);
   }
 
-  private static void _scanTag(Multimap<String, TemplateDataField> foundTags, XmlTag xmlTag, String dataFieldTagAttribute) {
-    XmlAttribute xmlAttribute = xmlTag.getAttribute(dataFieldTagAttribute);
+  private static void _scanTag(TemplateDataFieldTable.Builder foundTags, XmlTag xmlTag, DataFieldKind kind,
+                               TextRange range, int preOrder, int postOrder) {
+    XmlAttribute xmlAttribute = xmlTag.getAttribute(kind.getAttributeName());
     if (xmlAttribute != null) {
 
       final String values = xmlAttribute.getValue();
@@ -285,7 +658,7 @@ public class TemplateUtil {
         while (tokenizer.hasMoreTokens()) {
           String value = tokenizer.nextToken();
           if (value != null && value.trim().length() > 0) {
-            foundTags.put(value, new TemplateDataField(xmlTag, value));
+            foundTags.add(value, kind, range.getStartOffset(), range.getEndOffset(), preOrder, postOrder);
           }
         }
       }
@@ -331,6 +704,12 @@ public class TemplateUtil {
   }
 
   public static TemplateMetaData getTemplateMetaData(PsiElement element) {
+    final PsiClass topLevelClass = PsiUtil.getTopLevelClass(element);
+
+    if (topLevelClass != null && TemplatedClassIndex.getTemplatedClassInfo(topLevelClass) == null) {
+      // the index knows this class is not templated, so there is no need to look at its annotations
+      return null;
+    }
     return getTemplateMetaData(findTemplatedAnnotation(element), element.getProject());
   }
 
@@ -354,10 +733,16 @@ public class TemplateUtil {
 
     final PsiNameValuePair[] attributes = annotation.getParameterList().getAttributes();
 
+    final TemplatedClassInfo indexedInfo = TemplatedClassIndex.getTemplatedClassInfo(templateClass);
+
     final String templateName;
     if (attributes.length == 0) {
       templateName = templateClass.getName() + ".html";
-    } else {
+    }
+    else if (indexedInfo != null && indexedInfo.getExpression() != null) {
+      templateName = indexedInfo.getExpression();
+    }
+    else {
       templateName = Util.getStringValueOfElement(attributes[0].getValue());
       if (templateName.length() == 0) {
         return null;
@@ -381,77 +766,67 @@ public class TemplateUtil {
       fileName = reference.getFileName();
     }
 
-    final VirtualFile virtualFile = containerDir.getVirtualFile();
-    VirtualFile fileByRelativePath = virtualFile.findFileByRelativePath(fileName);
-    if (fileByRelativePath != null && fileByRelativePath.isDirectory()) {
-      fileByRelativePath = null;
-    }
-
-    if (fileByRelativePath == null) {
-      // locate file in the current module for /absolute/path/Template.html
-      VirtualFile sourceRootForFile = ProjectRootManager.getInstance(project).getFileIndex().getSourceRootForFile(
-          containingFile.getVirtualFile());
-      if (sourceRootForFile != null) {
-        fileByRelativePath = sourceRootForFile.findFileByRelativePath(fileName);
-      }
-    }
-
-      // if we didn't find the file in the current container,
-    // and this is a maven project, it might located in the resources folder
-    if (fileByRelativePath == null) {
-      // see if this is a maven project  check for a pom.xml in the root folder
-      VirtualFile vProjectDir = project.getBaseDir();
-      VirtualFile vPom = vProjectDir.findChild("pom.xml");
-      if (vPom != null) {
-        // look in the src/main/resources folder for the corresponding html file
-        String containerPath = virtualFile.getPath();
-        String resourcePath = containerPath.replaceAll("src/main/java", "src/main/resources");
-        File resourceFile = new File(resourcePath, fileName);
-        VirtualFile vf = LocalFileSystem.getInstance().findFileByIoFile(resourceFile);
-        if (vf != null) {
-          fileByRelativePath = vf;
-        }
-      }
-    }
+    return new TemplateMetaData(reference,
+        attributes.length == 0,
+        attributes.length == 0 ? null : attributes[0],
+        templateClass,
+        fileName,
+        project);
+  }
 
+  /**
+   * Locates the template file of the specified class.
+   *
+   * @param templateClass
+   *     the top-level <tt>@Templated</tt> class.
+   * @param fileName
+   *     the template file name, relative to the class.
+   *
+   * @return the template file, or <tt>null</tt> if it cannot be found.
+   */
+  public static VirtualFile resolveTemplateFile(PsiClass templateClass, String fileName) {
+    return TemplateResolutionCache.getInstance(templateClass.getProject()).resolve(templateClass, fileName);
+  }
 
-    final XmlTag rootTag;
-    if (fileByRelativePath == null) {
-      rootTag = null;
+  /**
+   * Locates the root tag of a template.
+   *
+   * @param templateFile
+   *     the template file, may be <tt>null</tt>.
+   * @param rootNode
+   *     the root node of the template expression, or an empty string to use the root tag of the file.
+   *
+   * @return the root tag, or <tt>null</tt> if it cannot be found.
+   */
+  public static XmlTag findRootTag(VirtualFile templateFile, String rootNode, Project project) {
+    if (templateFile == null) {
+      return null;
     }
-    else if (reference.getRootNode().equals("")) {
-      final PsiFile file = PsiManager.getInstance(project).findFile(fileByRelativePath);
+    else if (rootNode.equals("")) {
+      final PsiFile file = PsiManager.getInstance(project).findFile(templateFile);
       if (file != null) {
-        rootTag = ((XmlFile) file).getRootTag();
+        return ((XmlFile) file).getRootTag();
       }
       else {
-        rootTag = null;
+        return null;
       }
     }
     else {
       Multimap<String, TemplateDataField> allDataFieldTags
-          = findAllDataFieldTags(fileByRelativePath, null, project, true);
+          = findAllDataFieldTags(templateFile, project);
 
-      final Collection<TemplateDataField> dataFieldReference = allDataFieldTags.get(reference.getRootNode());
+      final Collection<TemplateDataField> dataFieldReference = allDataFieldTags.get(rootNode);
       // if both data-field and id are the same, dataFieldReference will have
       // two reference to the same element. So, the root tag is valid if we have
       // any values in the iterator
       Iterator<TemplateDataField> dataFieldIterator = dataFieldReference.iterator();
       if (dataFieldIterator.hasNext()) {
-        rootTag = dataFieldIterator.next().getTag();
+        return dataFieldIterator.next().getTag();
       }
       else {
-        rootTag = null;
+        return null;
       }
     }
-
-    return new TemplateMetaData(reference,
-        attributes.length == 0,
-        attributes.length == 0 ? null : attributes[0],
-        templateClass,
-        fileByRelativePath,
-        rootTag,
-        project);
   }
 
   public static Collection<String> extractDataFieldList(Collection<AnnotationSearchResult> dataFieldElements) {
@@ -462,8 +837,58 @@ public class TemplateUtil {
     return elements;
   }
 
-  public static Map<String, ConsolidateDataFieldElementResult> getConsolidatedDataFields(PsiElement element, Project project) {
-    final TemplateMetaData metaData = TemplateUtil.getTemplateMetaData(element);
+  /**
+   * Returns the data-fields of the class containing the specified element merged with the data-fields of its
+   * template. The result is cached on the class and recomputed only when the class, the Java structure of the
+   * project, the resolution of templates or the template itself changes.
+   */
+  public static Map<String, ConsolidateDataFieldElementResult> getConsolidatedDataFields(final PsiElement element,
+                                                                                         final Project project) {
+    final PsiManager psiManager = PsiManager.getInstance(project);
+    final PsiModificationTracker tracker = psiManager.getModificationTracker();
+    final TemplateResolutionCache resolutionCache = TemplateResolutionCache.getInstance(project);
+
+    return Util.getOrCreateCache(consolidatedDataFieldsCacheKey, element,
+        new CacheProvider<ConsolidatedDataFieldsCacheHolder>() {
+          @Override
+          public ConsolidatedDataFieldsCacheHolder provide() {
+            // read the stamps first, so that changes made while consolidating make the result stale
+            final long classTime = Util.getLastUpdate(element);
+            final long structureModificationCount = tracker.getJavaStructureModificationCount();
+            final long resolutionModificationCount = resolutionCache.getModificationCount();
+
+            final TemplateMetaData metaData = TemplateUtil.getTemplateMetaData(element);
+            final VirtualFile templateFile = metaData == null ? null : metaData.getTemplateFile();
+
+            return new ConsolidatedDataFieldsCacheHolder(classTime, structureModificationCount,
+                resolutionModificationCount, templateFile, getTemplateTime(psiManager, templateFile),
+                Collections.unmodifiableMap(consolidateDataFields(element, metaData, project)));
+          }
+
+          @Override
+          public boolean isCacheValid(ConsolidatedDataFieldsCacheHolder holder) {
+            return holder.getClassTime() == Util.getLastUpdate(element)
+                && holder.getStructureModificationCount() == tracker.getJavaStructureModificationCount()
+                && holder.getResolutionModificationCount() == resolutionCache.getModificationCount()
+                && holder.getTemplateTime() == getTemplateTime(psiManager, holder.getTemplateFile());
+          }
+        }).getDataFields();
+  }
+
+  private static long getTemplateTime(PsiManager psiManager, VirtualFile templateFile) {
+    if (templateFile == null) {
+      return -1;
+    }
+    if (!templateFile.isValid()) {
+      return -2;
+    }
+    final PsiFile file = psiManager.findFile(templateFile);
+    return file == null ? templateFile.getModificationStamp() : file.getModificationStamp();
+  }
+
+  private static Map<String, ConsolidateDataFieldElementResult> consolidateDataFields(PsiElement element,
+                                                                                     TemplateMetaData metaData,
+                                                                                     Project project) {
     if (metaData == null) {
       return Collections.emptyMap();
     }
@@ -487,7 +912,8 @@ public class TemplateUtil {
 
     final Multimap<String, TemplateDataField> allDataFieldTags = TemplateUtil.findAllDataFieldTags(metaData, project, false);
     for (TemplateDataField ref : allDataFieldTags.values()) {
-      final XmlAttribute attribute = ref.getTag().getAttribute("data-field");
+      final XmlTag tag = ref.getTag();
+      final XmlAttribute attribute = tag == null ? null : tag.getAttribute("data-field");
       if (attribute == null) {
         continue;
       }
@@ -506,16 +932,37 @@ public class TemplateUtil {
   }
 
   public static Collection<TemplateMetaData> getTemplateOwners(final PsiFile file) {
-    final List<TemplateMetaData> templateOwners = new ArrayList<TemplateMetaData>();
-    final PsiClass psiClass = JavaPsiFacade.getInstance(
-        file.getProject()).findClass(Types.GWT_COMPOSITE,
-        GlobalSearchScope.allScope(file.getProject()));
+    final Project project = file.getProject();
+    final VirtualFile virtualFile = file.getOriginalFile().getVirtualFile();
+    if (virtualFile == null) {
+      return Collections.emptyList();
+    }
+
+    final PsiClass psiClass = JavaPsiFacade.getInstance(project).findClass(Types.GWT_COMPOSITE,
+        GlobalSearchScope.allScope(project));
 
     if (psiClass == null) {
       return Collections.emptyList();
     }
 
-    for (PsiClass c : ClassInheritorsSearch.search(psiClass, projectScope(file.getProject()), true)) {
+    final Set<TemplatedClassInfo> candidateOwners = TemplateOwnerIndex.getCandidateOwners(project, virtualFile);
+    final Collection<PsiClass> candidates;
+    if (candidateOwners == null) {
+      candidates = ClassInheritorsSearch.search(psiClass, projectScope(project), true).findAll();
+    }
+    else {
+      candidates = new ArrayList<PsiClass>();
+      final JavaPsiFacade facade = JavaPsiFacade.getInstance(project);
+      for (TemplatedClassInfo owner : candidateOwners) {
+        final PsiClass ownerClass = facade.findClass(owner.getClassName(), projectScope(project));
+        if (ownerClass != null && ownerClass.isInheritor(psiClass, true)) {
+          candidates.add(ownerClass);
+        }
+      }
+    }
+
+    final List<TemplateMetaData> templateOwners = new ArrayList<TemplateMetaData>();
+    for (PsiClass c : candidates) {
       final TemplateMetaData templateMetaData = TemplateUtil.getTemplateMetaData(c);
       if (templateMetaData == null) {
         continue;
@@ -525,8 +972,7 @@ public class TemplateUtil {
         continue;
       }
       final String templateFile = vTemplateFile.getCanonicalPath();
-      final VirtualFile virtualFile = file.getOriginalFile().getVirtualFile();
-      if (virtualFile == null || templateFile == null) {
+      if (templateFile == null) {
         continue;
       }
       if (templateFile.equals(virtualFile.getCanonicalPath())) {
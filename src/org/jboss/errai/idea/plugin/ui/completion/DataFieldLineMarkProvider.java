@@ -22,7 +22,7 @@ import static org.jboss.errai.idea.plugin.ui.completion.DataFieldReference.getAv
 public class DataFieldLineMarkProvider extends RelatedItemLineMarkerProvider {
   @Override
   protected void collectNavigationMarkers(@NotNull PsiElement element, Collection<? super RelatedItemLineMarkerInfo> result) {
-    if (element instanceof PsiField) {
+    if (element instanceof PsiField && Util.isErraiFile(element)) {
       final Collection<PsiAnnotation> annotations = PsiTreeUtil.findChildrenOfType(element, PsiAnnotation.class);
 
       for (PsiAnnotation annotation : annotations) {
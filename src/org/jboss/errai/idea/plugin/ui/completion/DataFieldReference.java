@@ -26,13 +26,18 @@ import com.intellij.psi.xml.XmlAttribute;
 import com.intellij.psi.xml.XmlTag;
 import org.jboss.errai.idea.plugin.ui.TemplateDataField;
 import org.jboss.errai.idea.plugin.ui.TemplateUtil;
+import org.jboss.errai.idea.plugin.ui.index.IndexedDataField;
 import org.jboss.errai.idea.plugin.ui.model.TemplateMetaData;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.Map;
+import java.util.Set;
 
 /**
  * @author Mike Brock
@@ -57,6 +62,8 @@ public class DataFieldReference extends PsiReferenceBase<PsiLiteralExpression> {
         if (!considerRoot && rootNode.equals(entry.getKey())) continue;
 
         final XmlTag tag = entry.getValue().getTag();
+        if (tag == null) continue;
+
         final XmlAttribute attribute;
         if (tag.getAttribute(TemplateUtil.DATA_FIELD_TAG_ATTRIBUTE) != null) {
           attribute = tag.getAttribute(TemplateUtil.DATA_FIELD_TAG_ATTRIBUTE);
@@ -86,11 +93,36 @@ public class DataFieldReference extends PsiReferenceBase<PsiLiteralExpression> {
     return element.equals(resolve());
   }
 
+  /**
+   * Returns the names of the data-fields available for completion. These are taken from the template index where
+   * possible, so that the template does not have to be parsed just to offer the variants.
+   */
+  static Collection<String> getAvailableDataFieldNames(boolean considerRoot, PsiElement element) {
+    final TemplateMetaData metaData = TemplateUtil.getTemplateMetaData(element);
+    if (metaData == null) {
+      return Collections.emptySet();
+    }
+
+    final Collection<IndexedDataField> indexedDataFields = TemplateUtil.findIndexedDataFields(metaData, considerRoot);
+    if (indexedDataFields == null) {
+      return getAvailableDataFields(considerRoot, element).keySet();
+    }
+
+    final String rootNode = metaData.getTemplateExpression().getRootNode();
+    final Set<String> names = new LinkedHashSet<String>();
+    for (IndexedDataField field : indexedDataFields) {
+      if (!considerRoot && rootNode.equals(field.getName())) continue;
+
+      names.add(field.getName());
+    }
+    return names;
+  }
+
   @NotNull
   @Override
   public Object[] getVariants() {
     final ArrayList<Object> list = new ArrayList<Object>();
-    for (final String value : getAvailableDataFields(considerRoot, getElement()).keySet()) {
+    for (final String value : getAvailableDataFieldNames(considerRoot, getElement())) {
 
       list.add(LookupElementBuilder.create(value).withIcon(AllIcons.Xml.Html_id));
     }
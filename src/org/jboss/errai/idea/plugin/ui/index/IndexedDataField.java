@@ -0,0 +1,72 @@
+/*
+ * Copyright 2013 Red Hat, Inc.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package org.jboss.errai.idea.plugin.ui.index;
+
+import org.jboss.errai.idea.plugin.ui.model.DataFieldKind;
+
+/**
+ * A data-field as recorded by the {@link TemplateDataFieldIndex}. The tag is identified by its text range only,
+ * so the template does not need to be parsed to answer questions about it.
+ *
+ * @author Mike Brock
+ */
+public class IndexedDataField {
+  private final String name;
+  private final DataFieldKind kind;
+  private final int tagStartOffset;
+  private final int tagEndOffset;
+
+  public IndexedDataField(String name, DataFieldKind kind, int tagStartOffset, int tagEndOffset) {
+    this.name = name;
+    this.kind = kind;
+    this.tagStartOffset = tagStartOffset;
+    this.tagEndOffset = tagEndOffset;
+  }
+
+  public String getName() {
+    return name;
+  }
+
+  public DataFieldKind getKind() {
+    return kind;
+  }
+
+  public int getTagStartOffset() {
+    return tagStartOffset;
+  }
+
+  public int getTagEndOffset() {
+    return tagEndOffset;
+  }
+
+  /**
+   * @return true if the tag of this data-field is nested inside the tag of the specified data-field.
+   */
+  public boolean isDescendantOf(IndexedDataField parent) {
+    return parent.tagStartOffset < tagStartOffset && tagEndOffset <= parent.tagEndOffset;
+  }
+
+  @Override
+  public String toString() {
+    return "IndexedDataField{" +
+        "name='" + name + '\'' +
+        ", kind=" + kind +
+        ", tagStartOffset=" + tagStartOffset +
+        ", tagEndOffset=" + tagEndOffset +
+        '}';
+  }
+}
@@ -0,0 +1,159 @@
+/*
+ * Copyright 2013 Red Hat, Inc.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package org.jboss.errai.idea.plugin.ui.index;
+
+import com.intellij.openapi.fileTypes.StdFileTypes;
+import com.intellij.openapi.project.DumbService;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.psi.search.GlobalSearchScope;
+import com.intellij.util.indexing.DataIndexer;
+import com.intellij.util.indexing.FileBasedIndex;
+import com.intellij.util.indexing.FileBasedIndexExtension;
+import com.intellij.util.indexing.FileContent;
+import com.intellij.util.indexing.ID;
+import com.intellij.util.io.DataExternalizer;
+import com.intellij.util.io.EnumeratorStringDescriptor;
+import com.intellij.util.io.IOUtil;
+import com.intellij.util.io.KeyDescriptor;
+import org.jboss.errai.idea.plugin.ui.model.DataFieldKind;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Persistent index of the data-field, id and class attribute values declared in every HTML file. Files are read
+ * with the {@link TemplateDataFieldScanner}, so no PSI is built while indexing.
+ * <p/>
+ * The index is keyed by the name of the template file, so that all data-fields of a single template can be
+ * retrieved by querying its name within a file scope.
+ *
+ * @author Mike Brock
+ */
+public class TemplateDataFieldIndex extends FileBasedIndexExtension<String, List<IndexedDataField>> {
+  public static final ID<String, List<IndexedDataField>> NAME = ID.create("errai.ui.TemplateDataFieldIndex");
+
+  private static final DataFieldKind[] KINDS = DataFieldKind.values();
+
+  @NotNull
+  @Override
+  public ID<String, List<IndexedDataField>> getName() {
+    return NAME;
+  }
+
+  @NotNull
+  @Override
+  public DataIndexer<String, List<IndexedDataField>, FileContent> getIndexer() {
+    return new DataIndexer<String, List<IndexedDataField>, FileContent>() {
+      @NotNull
+      @Override
+      public Map<String, List<IndexedDataField>> map(FileContent inputData) {
+        final List<IndexedDataField> dataFields = TemplateDataFieldScanner.scan(inputData.getContentAsText());
+        if (dataFields.isEmpty()) {
+          return Collections.emptyMap();
+        }
+        return Collections.singletonMap(inputData.getFileName(), dataFields);
+      }
+    };
+  }
+
+  @NotNull
+  @Override
+  public KeyDescriptor<String> getKeyDescriptor() {
+    return new EnumeratorStringDescriptor();
+  }
+
+  @NotNull
+  @Override
+  public DataExternalizer<List<IndexedDataField>> getValueExternalizer() {
+    return new DataExternalizer<List<IndexedDataField>>() {
+      @Override
+      public void save(DataOutput out, List<IndexedDataField> value) throws IOException {
+        out.writeInt(value.size());
+        for (IndexedDataField field : value) {
+          IOUtil.writeUTF(out, field.getName());
+          out.writeByte(field.getKind().ordinal());
+          out.writeInt(field.getTagStartOffset());
+          out.writeInt(field.getTagEndOffset());
+        }
+      }
+
+      @Override
+      public List<IndexedDataField> read(DataInput in) throws IOException {
+        final int size = in.readInt();
+        final List<IndexedDataField> fields = new ArrayList<IndexedDataField>(size);
+        for (int i = 0; i < size; i++) {
+          final String name = IOUtil.readUTF(in);
+          final DataFieldKind kind = KINDS[in.readByte()];
+          final int start = in.readInt();
+          final int end = in.readInt();
+          fields.add(new IndexedDataField(name, kind, start, end));
+        }
+        return fields;
+      }
+    };
+  }
+
+  @NotNull
+  @Override
+  public FileBasedIndex.InputFilter getInputFilter() {
+    return new FileBasedIndex.InputFilter() {
+      @Override
+      public boolean acceptInput(VirtualFile file) {
+        return file.getFileType() == StdFileTypes.HTML || file.getFileType() == StdFileTypes.XHTML;
+      }
+    };
+  }
+
+  @Override
+  public boolean dependsOnFileContent() {
+    return true;
+  }
+
+  @Override
+  public int getVersion() {
+    return 2;
+  }
+
+  /**
+   * Returns all data-fields declared in the specified template, in document order.
+   *
+   * @return the list of indexed data-fields, or <tt>null</tt> if the index cannot be queried right now
+   *         (while indexing is in progress).
+   */
+  @Nullable
+  public static List<IndexedDataField> getDataFields(Project project, VirtualFile templateFile) {
+    if (DumbService.isDumb(project)) {
+      return null;
+    }
+
+    final List<List<IndexedDataField>> values = FileBasedIndex.getInstance().getValues(NAME, templateFile.getName(),
+        GlobalSearchScope.fileScope(project, templateFile));
+
+    if (values.isEmpty()) {
+      return Collections.emptyList();
+    }
+    return values.get(0);
+  }
+}
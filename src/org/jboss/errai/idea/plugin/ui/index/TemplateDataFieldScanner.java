@@ -0,0 +1,243 @@
+/*
+ * Copyright 2013 Red Hat, Inc.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package org.jboss.errai.idea.plugin.ui.index;
+
+import com.intellij.lexer.HtmlLexer;
+import com.intellij.lexer.Lexer;
+import com.intellij.psi.tree.IElementType;
+import com.intellij.psi.xml.XmlTokenType;
+import com.intellij.xml.util.HtmlUtil;
+import org.jboss.errai.idea.plugin.ui.model.DataFieldKind;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.StringTokenizer;
+
+/**
+ * Extracts the data-field, id and class attribute values of a template, along with the text range of the tag
+ * declaring them, from the HTML lexer token stream. No PSI is built, which makes it suitable for indexing and for
+ * reading templates whose PSI is not loaded.
+ * <p/>
+ * Tag nesting is tracked with a stack. Void elements and elements whose end tag may be omitted are closed the
+ * same way the HTML parser closes them, so the ranges match those of the PSI for well-formed templates.
+ *
+ * @author Mike Brock
+ */
+public class TemplateDataFieldScanner {
+  private TemplateDataFieldScanner() {
+  }
+
+  /**
+   * @return the data-fields declared in the specified template text, ordered by the start offset of their tag.
+   */
+  public static List<IndexedDataField> scan(CharSequence text) {
+    final List<IndexedDataField> dataFields = new ArrayList<IndexedDataField>();
+    final Deque<OpenTag> open = new ArrayDeque<OpenTag>();
+
+    final Lexer lexer = new HtmlLexer();
+    lexer.start(text);
+
+    OpenTag startTag = null;
+    EndTag endTag = null;
+    String attributeName = null;
+    StringBuilder attributeValue = null;
+
+    IElementType type;
+    while ((type = lexer.getTokenType()) != null) {
+      if (type == XmlTokenType.XML_START_TAG_START) {
+        startTag = new OpenTag(lexer.getTokenStart());
+        endTag = null;
+        attributeName = null;
+      }
+      else if (type == XmlTokenType.XML_END_TAG_START) {
+        endTag = new EndTag(lexer.getTokenStart());
+        startTag = null;
+        attributeName = null;
+      }
+      else if (type == XmlTokenType.XML_NAME || type == XmlTokenType.XML_TAG_NAME) {
+        final String name = text.subSequence(lexer.getTokenStart(), lexer.getTokenEnd()).toString();
+        if (startTag != null) {
+          if (startTag.name == null) {
+            startTag.name = name;
+            closeTerminatedTags(open, name, startTag.startOffset, dataFields);
+          }
+          else {
+            addAttribute(startTag, attributeName, attributeValue);
+            attributeName = name;
+            attributeValue = null;
+          }
+        }
+        else if (endTag != null && endTag.name == null) {
+          endTag.name = name;
+        }
+      }
+      else if (type == XmlTokenType.XML_ATTRIBUTE_VALUE_TOKEN || type == XmlTokenType.XML_CHAR_ENTITY_REF) {
+        if (startTag != null && attributeName != null) {
+          if (attributeValue == null) {
+            attributeValue = new StringBuilder();
+          }
+          attributeValue.append(text, lexer.getTokenStart(), lexer.getTokenEnd());
+        }
+      }
+      else if (type == XmlTokenType.XML_TAG_END) {
+        if (startTag != null) {
+          addAttribute(startTag, attributeName, attributeValue);
+          if (startTag.name != null && HtmlUtil.isSingleHtmlTag(startTag.name)) {
+            close(startTag, lexer.getTokenEnd(), dataFields);
+          }
+          else {
+            open.push(startTag);
+          }
+        }
+        else if (endTag != null && endTag.name != null) {
+          closeMatchingTag(open, endTag, lexer.getTokenEnd(), dataFields);
+        }
+        startTag = null;
+        endTag = null;
+        attributeName = null;
+      }
+      else if (type == XmlTokenType.XML_EMPTY_ELEMENT_END) {
+        if (startTag != null) {
+          addAttribute(startTag, attributeName, attributeValue);
+          close(startTag, lexer.getTokenEnd(), dataFields);
+        }
+        startTag = null;
+        attributeName = null;
+      }
+
+      lexer.advance();
+    }
+
+    while (!open.isEmpty()) {
+      close(open.pop(), text.length(), dataFields);
+    }
+
+    Collections.sort(dataFields, new Comparator<IndexedDataField>() {
+      @Override
+      public int compare(IndexedDataField a, IndexedDataField b) {
+        return a.getTagStartOffset() < b.getTagStartOffset() ? -1
+            : (a.getTagStartOffset() == b.getTagStartOffset() ? 0 : 1);
+      }
+    });
+    return dataFields;
+  }
+
+  private static void addAttribute(OpenTag tag, String attributeName, StringBuilder attributeValue) {
+    if (attributeName == null || attributeValue == null) {
+      return;
+    }
+
+    for (DataFieldKind kind : DataFieldKind.values()) {
+      if (kind.getAttributeName().equalsIgnoreCase(attributeName)) {
+        tag.attributes.add(new Attribute(kind, attributeValue.toString()));
+        return;
+      }
+    }
+  }
+
+  /**
+   * Closes the open tags whose end tag is implied by the start of a tag with the specified name.
+   */
+  private static void closeTerminatedTags(Deque<OpenTag> open,
+                                          String name,
+                                          int offset,
+                                          List<IndexedDataField> dataFields) {
+    while (!open.isEmpty()) {
+      final OpenTag top = open.peek();
+      if (top.name == null
+          || !HtmlUtil.isOptionalEndForHtmlTag(top.name)
+          || !HtmlUtil.canTerminate(name, top.name)) {
+        return;
+      }
+      close(open.pop(), offset, dataFields);
+    }
+  }
+
+  private static void closeMatchingTag(Deque<OpenTag> open,
+                                       EndTag endTag,
+                                       int endOffset,
+                                       List<IndexedDataField> dataFields) {
+    boolean matched = false;
+    for (OpenTag tag : open) {
+      if (endTag.name.equalsIgnoreCase(tag.name)) {
+        matched = true;
+        break;
+      }
+    }
+    if (!matched) {
+      // a stray end tag, which the parser reports as an error and otherwise ignores
+      return;
+    }
+
+    final Iterator<OpenTag> iterator = open.iterator();
+    while (iterator.hasNext()) {
+      final OpenTag tag = iterator.next();
+      iterator.remove();
+      if (endTag.name.equalsIgnoreCase(tag.name)) {
+        close(tag, endOffset, dataFields);
+        return;
+      }
+      close(tag, endTag.startOffset, dataFields);
+    }
+  }
+
+  private static void close(OpenTag tag, int endOffset, List<IndexedDataField> dataFields) {
+    for (Attribute attribute : tag.attributes) {
+      final StringTokenizer tokenizer = new StringTokenizer(attribute.value, " ");
+      while (tokenizer.hasMoreTokens()) {
+        final String value = tokenizer.nextToken();
+        if (value.trim().length() > 0) {
+          dataFields.add(new IndexedDataField(value, attribute.kind, tag.startOffset, endOffset));
+        }
+      }
+    }
+  }
+
+  private static class OpenTag {
+    private final int startOffset;
+    private String name;
+    private final List<Attribute> attributes = new ArrayList<Attribute>(2);
+
+    private OpenTag(int startOffset) {
+      this.startOffset = startOffset;
+    }
+  }
+
+  private static class EndTag {
+    private final int startOffset;
+    private String name;
+
+    private EndTag(int startOffset) {
+      this.startOffset = startOffset;
+    }
+  }
+
+  private static class Attribute {
+    private final DataFieldKind kind;
+    private final String value;
+
+    private Attribute(DataFieldKind kind, String value) {
+      this.kind = kind;
+      this.value = value;
+    }
+  }
+}
@@ -0,0 +1,211 @@
+/*
+ * Copyright 2013 Red Hat, Inc.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package org.jboss.errai.idea.plugin.ui.index;
+
+import com.intellij.openapi.fileTypes.StdFileTypes;
+import com.intellij.openapi.project.DumbService;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.roots.ProjectFileIndex;
+import com.intellij.openapi.roots.ProjectRootManager;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.psi.PsiFile;
+import com.intellij.psi.PsiJavaFile;
+import com.intellij.psi.search.GlobalSearchScope;
+import com.intellij.util.indexing.DataIndexer;
+import com.intellij.util.indexing.FileBasedIndex;
+import com.intellij.util.indexing.FileBasedIndexExtension;
+import com.intellij.util.indexing.FileContent;
+import com.intellij.util.indexing.ID;
+import com.intellij.util.io.DataExternalizer;
+import com.intellij.util.io.EnumeratorStringDescriptor;
+import com.intellij.util.io.KeyDescriptor;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Reverse index from a template path to the <tt>@Templated</tt> classes that use it. Templates are keyed by their
+ * path relative to the source or resource root (for example <tt>org/foo/MyWidget.html</tt>).
+ * <p/>
+ * Classes whose template expression is not a literal cannot be keyed without resolving references, so they are
+ * recorded under {@link #UNRESOLVED_KEY} and have to be checked individually.
+ *
+ * @author Mike Brock
+ */
+public class TemplateOwnerIndex extends FileBasedIndexExtension<String, List<TemplatedClassInfo>> {
+  public static final ID<String, List<TemplatedClassInfo>> NAME = ID.create("errai.ui.TemplateOwnerIndex");
+
+  public static final String UNRESOLVED_KEY = "<unresolved>";
+
+  @NotNull
+  @Override
+  public ID<String, List<TemplatedClassInfo>> getName() {
+    return NAME;
+  }
+
+  @NotNull
+  @Override
+  public DataIndexer<String, List<TemplatedClassInfo>, FileContent> getIndexer() {
+    return new DataIndexer<String, List<TemplatedClassInfo>, FileContent>() {
+      @NotNull
+      @Override
+      public Map<String, List<TemplatedClassInfo>> map(FileContent inputData) {
+        if (!TemplatedClassScanner.mayContainTemplatedClass(inputData.getContentAsText())) {
+          return Collections.emptyMap();
+        }
+
+        final PsiFile psiFile = inputData.getPsiFile();
+        if (!(psiFile instanceof PsiJavaFile)) {
+          return Collections.emptyMap();
+        }
+
+        final Map<String, List<TemplatedClassInfo>> result = new HashMap<String, List<TemplatedClassInfo>>();
+        for (TemplatedClassInfo info : TemplatedClassScanner.scan((PsiJavaFile) psiFile)) {
+          if (!info.isResolved()) {
+            addOwner(result, UNRESOLVED_KEY, info);
+            continue;
+          }
+
+          for (String path : TemplatedClassScanner.getCandidateTemplatePaths(info)) {
+            addOwner(result, path, info);
+          }
+        }
+        return result;
+      }
+    };
+  }
+
+  private static void addOwner(Map<String, List<TemplatedClassInfo>> result, String key, TemplatedClassInfo info) {
+    List<TemplatedClassInfo> owners = result.get(key);
+    if (owners == null) {
+      result.put(key, owners = new ArrayList<TemplatedClassInfo>());
+    }
+    owners.add(info);
+  }
+
+  @NotNull
+  @Override
+  public KeyDescriptor<String> getKeyDescriptor() {
+    return new EnumeratorStringDescriptor();
+  }
+
+  @NotNull
+  @Override
+  public DataExternalizer<List<TemplatedClassInfo>> getValueExternalizer() {
+    return new DataExternalizer<List<TemplatedClassInfo>>() {
+      @Override
+      public void save(DataOutput out, List<TemplatedClassInfo> value) throws IOException {
+        out.writeInt(value.size());
+        for (TemplatedClassInfo info : value) {
+          info.save(out);
+        }
+      }
+
+      @Override
+      public List<TemplatedClassInfo> read(DataInput in) throws IOException {
+        final int size = in.readInt();
+        final List<TemplatedClassInfo> owners = new ArrayList<TemplatedClassInfo>(size);
+        for (int i = 0; i < size; i++) {
+          owners.add(TemplatedClassInfo.read(in));
+        }
+        return owners;
+      }
+    };
+  }
+
+  @NotNull
+  @Override
+  public FileBasedIndex.InputFilter getInputFilter() {
+    return new FileBasedIndex.InputFilter() {
+      @Override
+      public boolean acceptInput(VirtualFile file) {
+        return file.getFileType() == StdFileTypes.JAVA;
+      }
+    };
+  }
+
+  @Override
+  public boolean dependsOnFileContent() {
+    return true;
+  }
+
+  @Override
+  public int getVersion() {
+    return 1;
+  }
+
+  /**
+   * Returns the classes in the project that may own the specified template, including all classes whose template
+   * expression could not be read from source. Callers must still confirm ownership against the resolved
+   * template file.
+   *
+   * @return the candidate owners, or <tt>null</tt> if the index cannot answer (while indexing is in progress, or
+   *         if the template is not under a source or resource root).
+   */
+  @Nullable
+  public static Set<TemplatedClassInfo> getCandidateOwners(Project project, VirtualFile templateFile) {
+    if (DumbService.isDumb(project)) {
+      return null;
+    }
+
+    final String templatePath = getTemplatePath(project, templateFile);
+    if (templatePath == null) {
+      // the template is not under a source or resource root, so it cannot be keyed
+      return null;
+    }
+
+    final GlobalSearchScope scope = GlobalSearchScope.projectScope(project);
+    final FileBasedIndex index = FileBasedIndex.getInstance();
+
+    final Set<TemplatedClassInfo> owners = new LinkedHashSet<TemplatedClassInfo>();
+    for (List<TemplatedClassInfo> infos : index.getValues(NAME, templatePath, scope)) {
+      owners.addAll(infos);
+    }
+    for (List<TemplatedClassInfo> infos : index.getValues(NAME, UNRESOLVED_KEY, scope)) {
+      owners.addAll(infos);
+    }
+    return owners;
+  }
+
+  /**
+   * @return the path of the template relative to the source or resource root containing it, or <tt>null</tt> if
+   *         the template is not under any root.
+   */
+  private static String getTemplatePath(Project project, VirtualFile templateFile) {
+    final VirtualFile parent = templateFile.getParent();
+    if (parent == null) {
+      return null;
+    }
+
+    final ProjectFileIndex fileIndex = ProjectRootManager.getInstance(project).getFileIndex();
+    final String packageName = fileIndex.getPackageNameByDirectory(parent);
+    if (packageName == null) {
+      return null;
+    }
+    return TemplatedClassScanner.getTemplatePath(packageName, templateFile.getName());
+  }
+}
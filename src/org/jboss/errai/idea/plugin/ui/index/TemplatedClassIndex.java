@@ -0,0 +1,155 @@
+/*
+ * Copyright 2013 Red Hat, Inc.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package org.jboss.errai.idea.plugin.ui.index;
+
+import com.intellij.openapi.fileTypes.StdFileTypes;
+import com.intellij.openapi.project.DumbService;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.psi.PsiClass;
+import com.intellij.psi.PsiFile;
+import com.intellij.psi.PsiJavaFile;
+import com.intellij.psi.search.GlobalSearchScope;
+import com.intellij.util.indexing.DataIndexer;
+import com.intellij.util.indexing.FileBasedIndex;
+import com.intellij.util.indexing.FileBasedIndexExtension;
+import com.intellij.util.indexing.FileContent;
+import com.intellij.util.indexing.ID;
+import com.intellij.util.io.DataExternalizer;
+import com.intellij.util.io.EnumeratorStringDescriptor;
+import com.intellij.util.io.KeyDescriptor;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Index of <tt>@Templated</tt> classes, keyed by the fully qualified name of the class. The value holds the raw
+ * template expression, which can be read without loading the Java AST of the class.
+ *
+ * @author Mike Brock
+ */
+public class TemplatedClassIndex extends FileBasedIndexExtension<String, TemplatedClassInfo> {
+  public static final ID<String, TemplatedClassInfo> NAME = ID.create("errai.ui.TemplatedClassIndex");
+
+  /**
+   * Returned by {@link #getTemplatedClassInfo(PsiClass)} when the index cannot be used.
+   */
+  public static final TemplatedClassInfo UNKNOWN = new TemplatedClassInfo("", false, null);
+
+  @NotNull
+  @Override
+  public ID<String, TemplatedClassInfo> getName() {
+    return NAME;
+  }
+
+  @NotNull
+  @Override
+  public DataIndexer<String, TemplatedClassInfo, FileContent> getIndexer() {
+    return new DataIndexer<String, TemplatedClassInfo, FileContent>() {
+      @NotNull
+      @Override
+      public Map<String, TemplatedClassInfo> map(FileContent inputData) {
+        if (!TemplatedClassScanner.mayContainTemplatedClass(inputData.getContentAsText())) {
+          return Collections.emptyMap();
+        }
+
+        final PsiFile psiFile = inputData.getPsiFile();
+        if (!(psiFile instanceof PsiJavaFile)) {
+          return Collections.emptyMap();
+        }
+
+        final Map<String, TemplatedClassInfo> result = new HashMap<String, TemplatedClassInfo>();
+        for (TemplatedClassInfo info : TemplatedClassScanner.scan((PsiJavaFile) psiFile)) {
+          result.put(info.getClassName(), info);
+        }
+        return result;
+      }
+    };
+  }
+
+  @NotNull
+  @Override
+  public KeyDescriptor<String> getKeyDescriptor() {
+    return new EnumeratorStringDescriptor();
+  }
+
+  @NotNull
+  @Override
+  public DataExternalizer<TemplatedClassInfo> getValueExternalizer() {
+    return new DataExternalizer<TemplatedClassInfo>() {
+      @Override
+      public void save(DataOutput out, TemplatedClassInfo value) throws IOException {
+        value.save(out);
+      }
+
+      @Override
+      public TemplatedClassInfo read(DataInput in) throws IOException {
+        return TemplatedClassInfo.read(in);
+      }
+    };
+  }
+
+  @NotNull
+  @Override
+  public FileBasedIndex.InputFilter getInputFilter() {
+    return new FileBasedIndex.InputFilter() {
+      @Override
+      public boolean acceptInput(VirtualFile file) {
+        return file.getFileType() == StdFileTypes.JAVA;
+      }
+    };
+  }
+
+  @Override
+  public boolean dependsOnFileContent() {
+    return true;
+  }
+
+  @Override
+  public int getVersion() {
+    return 1;
+  }
+
+  /**
+   * Looks up the indexed <tt>@Templated</tt> declaration of the specified top-level class.
+   *
+   * @return the declaration, <tt>null</tt> if the class is not templated, or {@link #UNKNOWN} if the index cannot
+   *         answer (while indexing is in progress, or for classes that are not backed by a file).
+   */
+  public static TemplatedClassInfo getTemplatedClassInfo(PsiClass psiClass) {
+    final String qualifiedName = psiClass.getQualifiedName();
+    final PsiFile containingFile = psiClass.getContainingFile();
+    if (qualifiedName == null || containingFile == null || DumbService.isDumb(psiClass.getProject())) {
+      return UNKNOWN;
+    }
+
+    final VirtualFile virtualFile = containingFile.getOriginalFile().getVirtualFile();
+    if (virtualFile == null || virtualFile.getFileType() != StdFileTypes.JAVA) {
+      return UNKNOWN;
+    }
+
+    final List<TemplatedClassInfo> values = FileBasedIndex.getInstance().getValues(NAME, qualifiedName,
+        GlobalSearchScope.fileScope(psiClass.getProject(), virtualFile));
+
+    return values.isEmpty() ? null : values.get(0);
+  }
+}
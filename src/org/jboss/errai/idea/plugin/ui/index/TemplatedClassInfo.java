@@ -0,0 +1,130 @@
+/*
+ * Copyright 2013 Red Hat, Inc.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package org.jboss.errai.idea.plugin.ui.index;
+
+import com.intellij.util.io.IOUtil;
+import org.jboss.errai.idea.plugin.ui.TemplateUtil;
+import org.jboss.errai.idea.plugin.ui.model.TemplateExpression;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * The raw <tt>@Templated</tt> declaration of a class, as read from source without resolving anything.
+ *
+ * @author Mike Brock
+ */
+public class TemplatedClassInfo {
+  private final String className;
+  private final boolean defaultReference;
+  private final String expression;
+
+  /**
+   * @param className
+   *     the fully qualified name of the templated class.
+   * @param defaultReference
+   *     true if the annotation has no value and the template is named after the class.
+   * @param expression
+   *     the template expression (file name and optional <tt>#root</tt> node), or <tt>null</tt> if the value
+   *     is not a literal and can only be evaluated by resolving references.
+   */
+  public TemplatedClassInfo(String className, boolean defaultReference, String expression) {
+    this.className = className;
+    this.defaultReference = defaultReference;
+    this.expression = expression;
+  }
+
+  public String getClassName() {
+    return className;
+  }
+
+  public String getSimpleClassName() {
+    return className.substring(className.lastIndexOf('.') + 1);
+  }
+
+  public String getPackageName() {
+    final int idx = className.lastIndexOf('.');
+    return idx == -1 ? "" : className.substring(0, idx);
+  }
+
+  public boolean isDefaultReference() {
+    return defaultReference;
+  }
+
+  public boolean isResolved() {
+    return defaultReference || expression != null;
+  }
+
+  public String getExpression() {
+    return expression;
+  }
+
+  /**
+   * @return the parsed template expression, or <tt>null</tt> if the expression could not be read from source.
+   */
+  public TemplateExpression getTemplateExpression() {
+    if (defaultReference) {
+      return new TemplateExpression(getSimpleClassName() + ".html", "");
+    }
+    if (expression == null) {
+      return null;
+    }
+
+    final TemplateExpression reference = TemplateUtil.parseReference(expression);
+    if ("".equals(reference.getFileName())) {
+      return new TemplateExpression(getSimpleClassName() + ".html", reference.getRootNode());
+    }
+    return reference;
+  }
+
+  public void save(DataOutput out) throws IOException {
+    IOUtil.writeUTF(out, className);
+    out.writeBoolean(defaultReference);
+    out.writeBoolean(expression != null);
+    if (expression != null) {
+      IOUtil.writeUTF(out, expression);
+    }
+  }
+
+  public static TemplatedClassInfo read(DataInput in) throws IOException {
+    final String className = IOUtil.readUTF(in);
+    final boolean defaultReference = in.readBoolean();
+    final String expression = in.readBoolean() ? IOUtil.readUTF(in) : null;
+    return new TemplatedClassInfo(className, defaultReference, expression);
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) return true;
+    if (!(o instanceof TemplatedClassInfo)) return false;
+
+    final TemplatedClassInfo that = (TemplatedClassInfo) o;
+
+    return defaultReference == that.defaultReference
+        && className.equals(that.className)
+        && (expression == null ? that.expression == null : expression.equals(that.expression));
+  }
+
+  @Override
+  public int hashCode() {
+    int result = className.hashCode();
+    result = 31 * result + (defaultReference ? 1 : 0);
+    result = 31 * result + (expression != null ? expression.hashCode() : 0);
+    return result;
+  }
+}
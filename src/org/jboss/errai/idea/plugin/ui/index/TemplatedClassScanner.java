@@ -0,0 +1,190 @@
+/*
+ * Copyright 2013 Red Hat, Inc.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package org.jboss.errai.idea.plugin.ui.index;
+
+import com.intellij.psi.PsiAnnotation;
+import com.intellij.psi.PsiAnnotationMemberValue;
+import com.intellij.psi.PsiClass;
+import com.intellij.psi.PsiExpression;
+import com.intellij.psi.PsiJavaCodeReferenceElement;
+import com.intellij.psi.PsiJavaFile;
+import com.intellij.psi.PsiLiteralExpression;
+import com.intellij.psi.PsiModifierList;
+import com.intellij.psi.PsiNameValuePair;
+import com.intellij.psi.PsiParenthesizedExpression;
+import com.intellij.psi.PsiPolyadicExpression;
+import com.intellij.util.text.CharArrayUtil;
+import org.jboss.errai.idea.plugin.ui.model.TemplateExpression;
+import org.jboss.errai.idea.plugin.util.Types;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedList;
+import java.util.List;
+
+/**
+ * Reads <tt>@Templated</tt> declarations from a Java file without resolving any references, so that it can be
+ * used from file based indexes.
+ *
+ * @author Mike Brock
+ */
+public class TemplatedClassScanner {
+  private static final String TEMPLATED_SHORT_NAME = Types.TEMPLATED.substring(Types.TEMPLATED.lastIndexOf('.') + 1);
+
+  private TemplatedClassScanner() {
+  }
+
+  /**
+   * Quick textual check to avoid building PSI for files that cannot contain a <tt>@Templated</tt> class. The text
+   * is searched in place, without copying it.
+   */
+  public static boolean mayContainTemplatedClass(CharSequence text) {
+    return CharArrayUtil.indexOf(text, TEMPLATED_SHORT_NAME, 0) != -1;
+  }
+
+  public static List<TemplatedClassInfo> scan(PsiJavaFile javaFile) {
+    final List<TemplatedClassInfo> result = new ArrayList<TemplatedClassInfo>();
+
+    for (PsiClass psiClass : javaFile.getClasses()) {
+      final String className = psiClass.getQualifiedName();
+      if (className == null) {
+        continue;
+      }
+
+      final PsiAnnotation annotation = findTemplatedAnnotation(psiClass);
+      if (annotation == null) {
+        continue;
+      }
+
+      final PsiNameValuePair[] attributes = annotation.getParameterList().getAttributes();
+      if (attributes.length == 0) {
+        result.add(new TemplatedClassInfo(className, true, null));
+        continue;
+      }
+
+      final String expression = evaluateConstant(attributes[0].getValue());
+      if (expression != null && expression.length() == 0) {
+        // an empty template reference is an error, and does not link the class to any template
+        continue;
+      }
+
+      result.add(new TemplatedClassInfo(className, false, expression));
+    }
+
+    return result;
+  }
+
+  /**
+   * Returns the paths, relative to a source or resource root, at which the template of the class may be found.
+   * A template is looked up next to the class first and then relative to the root itself.
+   *
+   * @return the candidate relative paths, or an empty list if the template expression of the class could not
+   *         be read from source.
+   */
+  public static List<String> getCandidateTemplatePaths(TemplatedClassInfo info) {
+    final TemplateExpression expression = info.getTemplateExpression();
+    if (expression == null) {
+      return Collections.emptyList();
+    }
+
+    final String packageRelative = getTemplatePath(info.getPackageName(), expression.getFileName());
+    final String rootRelative = getTemplatePath("", expression.getFileName());
+    if (packageRelative.equals(rootRelative)) {
+      return Collections.singletonList(packageRelative);
+    }
+    return Arrays.asList(packageRelative, rootRelative);
+  }
+
+  public static String getTemplatePath(String packageName, String fileName) {
+    final String path;
+    if (fileName.startsWith("/")) {
+      path = fileName;
+    }
+    else if (packageName.length() == 0) {
+      path = fileName;
+    }
+    else {
+      path = packageName.replace('.', '/') + "/" + fileName;
+    }
+
+    final LinkedList<String> segments = new LinkedList<String>();
+    for (String segment : path.split("/")) {
+      if (segment.length() == 0 || segment.equals(".")) {
+        continue;
+      }
+      if (segment.equals("..")) {
+        if (!segments.isEmpty()) {
+          segments.removeLast();
+        }
+        continue;
+      }
+      segments.add(segment);
+    }
+
+    final StringBuilder sb = new StringBuilder();
+    for (String segment : segments) {
+      if (sb.length() > 0) {
+        sb.append('/');
+      }
+      sb.append(segment);
+    }
+    return sb.toString();
+  }
+
+  private static PsiAnnotation findTemplatedAnnotation(PsiClass psiClass) {
+    final PsiModifierList modifierList = psiClass.getModifierList();
+    if (modifierList == null) {
+      return null;
+    }
+
+    for (PsiAnnotation annotation : modifierList.getAnnotations()) {
+      final PsiJavaCodeReferenceElement reference = annotation.getNameReferenceElement();
+      if (reference == null) {
+        continue;
+      }
+
+      final String text = reference.getText();
+      if (TEMPLATED_SHORT_NAME.equals(text) || Types.TEMPLATED.equals(text)) {
+        return annotation;
+      }
+    }
+    return null;
+  }
+
+  private static String evaluateConstant(PsiAnnotationMemberValue value) {
+    if (value instanceof PsiLiteralExpression) {
+      final Object literal = ((PsiLiteralExpression) value).getValue();
+      return literal instanceof String ? (String) literal : null;
+    }
+    else if (value instanceof PsiParenthesizedExpression) {
+      return evaluateConstant(((PsiParenthesizedExpression) value).getExpression());
+    }
+    else if (value instanceof PsiPolyadicExpression) {
+      final StringBuilder sb = new StringBuilder();
+      for (PsiExpression operand : ((PsiPolyadicExpression) value).getOperands()) {
+        final String s = evaluateConstant(operand);
+        if (s == null) {
+          return null;
+        }
+        sb.append(s);
+      }
+      return sb.toString();
+    }
+    return null;
+  }
+}
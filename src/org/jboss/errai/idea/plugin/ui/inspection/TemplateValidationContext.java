@@ -0,0 +1,121 @@
+/*
+ * Copyright 2013 Red Hat, Inc.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package org.jboss.errai.idea.plugin.ui.inspection;
+
+import com.google.common.collect.Multimap;
+import com.intellij.codeInspection.LocalInspectionToolSession;
+import com.intellij.openapi.util.Key;
+import com.intellij.psi.PsiClass;
+import com.intellij.psi.PsiElement;
+import com.intellij.psi.util.PsiUtil;
+import org.jboss.errai.idea.plugin.ui.TemplateDataField;
+import org.jboss.errai.idea.plugin.ui.TemplateUtil;
+import org.jboss.errai.idea.plugin.ui.model.ConsolidateDataFieldElementResult;
+import org.jboss.errai.idea.plugin.ui.model.TemplateMetaData;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Everything the template inspections need to know about a <tt>@Templated</tt> class: its template metadata, the
+ * data-fields in scope of the template root and the consolidated data-fields of the class. Each of these is
+ * computed at most once, so validating every <tt>@DataField</tt>, <tt>@EventHandler</tt> and root expression of
+ * the class takes a single sweep over the template.
+ * <p/>
+ * Contexts are kept in the {@link LocalInspectionToolSession} of the inspection pass, so they are shared by all
+ * template inspections running over the same file, and are discarded with the pass.
+ *
+ * @author Mike Brock
+ */
+public class TemplateValidationContext {
+  private static final Key<ConcurrentMap<PsiClass, TemplateValidationContext>> contextsKey
+      = Key.create("errai.ui.TemplateValidationContexts");
+
+  private final TemplateMetaData metaData;
+
+  private volatile Multimap<String, TemplateDataField> inScopeDataFields;
+  private volatile Map<String, ConsolidateDataFieldElementResult> consolidatedDataFields;
+
+  private TemplateValidationContext(TemplateMetaData metaData) {
+    this.metaData = metaData;
+  }
+
+  /**
+   * Returns the validation context of the top-level class containing the specified element.
+   *
+   * @param session
+   *     the session of the inspection pass, or <tt>null</tt> to create a context for a single validation.
+   * @param element
+   *     any element within the class.
+   */
+  public static TemplateValidationContext getContext(LocalInspectionToolSession session, PsiElement element) {
+    final PsiClass topLevelClass = PsiUtil.getTopLevelClass(element);
+    if (session == null || topLevelClass == null) {
+      return new TemplateValidationContext(TemplateUtil.getTemplateMetaData(element));
+    }
+
+    ConcurrentMap<PsiClass, TemplateValidationContext> contexts = session.getUserData(contextsKey);
+    if (contexts == null) {
+      contexts = session.putUserDataIfAbsent(contextsKey,
+          new ConcurrentHashMap<PsiClass, TemplateValidationContext>());
+    }
+
+    TemplateValidationContext context = contexts.get(topLevelClass);
+    if (context == null) {
+      final TemplateValidationContext newContext
+          = new TemplateValidationContext(TemplateUtil.getTemplateMetaData(topLevelClass));
+      context = contexts.putIfAbsent(topLevelClass, newContext);
+      if (context == null) {
+        context = newContext;
+      }
+    }
+    return context;
+  }
+
+  /**
+   * @return the template metadata of the class, or <tt>null</tt> if the class is not templated.
+   */
+  public TemplateMetaData getMetaData() {
+    return metaData;
+  }
+
+  public Multimap<String, TemplateDataField> getInScopeDataFields() {
+    if (inScopeDataFields == null) {
+      inScopeDataFields = metaData.getAllDataFieldsInTemplate(false);
+    }
+    return inScopeDataFields;
+  }
+
+  public Map<String, ConsolidateDataFieldElementResult> getConsolidatedDataFields() {
+    if (consolidatedDataFields == null) {
+      consolidatedDataFields = metaData.getConsolidatedDataFields();
+    }
+    return consolidatedDataFields;
+  }
+
+  public TemplateUtil.DataFieldExistence getDataFieldExistence(String dataFieldName) {
+    return TemplateUtil.dataFieldExistenceCheck(dataFieldName, getInScopeDataFields(), getConsolidatedDataFields());
+  }
+
+  /**
+   * @return true if the whole template, including the root node, declares the specified data-field.
+   */
+  public boolean templateContainsDataField(String dataFieldName) {
+    return TemplateUtil.templateContainsDataField(metaData, dataFieldName);
+  }
+}
@@ -16,20 +16,19 @@
 
 package org.jboss.errai.idea.plugin.ui.inspection;
 
-import com.google.common.collect.Multimap;
 import com.intellij.codeHighlighting.HighlightDisplayLevel;
 import com.intellij.codeInsight.daemon.GroupNames;
 import com.intellij.codeInspection.BaseJavaLocalInspectionTool;
+import com.intellij.codeInspection.LocalInspectionToolSession;
 import com.intellij.codeInspection.ProblemsHolder;
 import com.intellij.openapi.vfs.VirtualFile;
-import com.intellij.psi.JavaElementVisitor;
 import com.intellij.psi.PsiAnnotation;
 import com.intellij.psi.PsiElementVisitor;
 import com.intellij.psi.PsiNameValuePair;
-import org.jboss.errai.idea.plugin.ui.TemplateDataField;
-import org.jboss.errai.idea.plugin.ui.TemplateUtil;
 import org.jboss.errai.idea.plugin.ui.model.TemplateMetaData;
+import org.jboss.errai.idea.plugin.util.ErraiAnnotationVisitor;
 import org.jboss.errai.idea.plugin.util.Types;
+import org.jboss.errai.idea.plugin.util.Util;
 import org.jetbrains.annotations.Nls;
 import org.jetbrains.annotations.NotNull;
 
@@ -69,31 +68,35 @@ public class UITemplateExistenceInspection extends BaseJavaLocalInspectionTool {
 
   @NotNull
   @Override
-  public PsiElementVisitor buildVisitor(@NotNull final ProblemsHolder holder, final boolean isOnTheFly) {
-    return new MyJavaElementVisitor(holder);
+  public PsiElementVisitor buildVisitor(@NotNull final ProblemsHolder holder,
+                                        final boolean isOnTheFly,
+                                        @NotNull final LocalInspectionToolSession session) {
+    if (!Util.isErraiFile(holder.getFile())) {
+      return PsiElementVisitor.EMPTY_VISITOR;
+    }
+    return new MyJavaElementVisitor(holder, session);
   }
 
-  private static class MyJavaElementVisitor extends JavaElementVisitor {
+  private static class MyJavaElementVisitor extends ErraiAnnotationVisitor {
     private final ProblemsHolder holder;
+    private final LocalInspectionToolSession session;
 
-    public MyJavaElementVisitor(ProblemsHolder holder) {
+    public MyJavaElementVisitor(ProblemsHolder holder, LocalInspectionToolSession session) {
+      super(session, Types.TEMPLATED);
       this.holder = holder;
+      this.session = session;
     }
 
     @Override
-    public void visitAnnotation(PsiAnnotation annotation) {
-      final String qualifiedName = annotation.getQualifiedName();
-      if (qualifiedName != null) {
-        if (qualifiedName.equals(Types.TEMPLATED)) {
-          ensureTemplateExists(holder, annotation);
-        }
-      }
+    protected void visitErraiAnnotation(PsiAnnotation annotation, String qualifiedName) {
+      ensureTemplateExists(holder, annotation, TemplateValidationContext.getContext(session, annotation));
     }
 
     private static void ensureTemplateExists(ProblemsHolder holder,
-                                             PsiAnnotation annotation) {
+                                             PsiAnnotation annotation,
+                                             TemplateValidationContext context) {
 
-      final TemplateMetaData metaData = TemplateUtil.getTemplateMetaData(annotation);
+      final TemplateMetaData metaData = context.getMetaData();
 
       if (metaData == null) {
         return;
@@ -111,9 +114,7 @@ public class UITemplateExistenceInspection extends BaseJavaLocalInspectionTool {
         }
       }
       else if (attribute != null && !metaData.getTemplateExpression().getRootNode().equals("")) {
-        final Multimap<String, TemplateDataField> allDataFieldTags = metaData.getAllDataFieldsInTemplate(true);
-
-        if (!allDataFieldTags.containsKey(metaData.getTemplateExpression().getRootNode())) {
+        if (!context.templateContainsDataField(metaData.getTemplateExpression().getRootNode())) {
           holder.registerProblem(attribute, "The data-field element specified for the root " +
               "note does not exist: " + metaData.getTemplateExpression().getRootNode());
         }
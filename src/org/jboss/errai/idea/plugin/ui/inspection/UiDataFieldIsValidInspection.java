@@ -20,16 +20,16 @@ import com.google.common.collect.Multimap;
 import com.intellij.codeHighlighting.HighlightDisplayLevel;
 import com.intellij.codeInsight.daemon.GroupNames;
 import com.intellij.codeInspection.BaseJavaLocalInspectionTool;
+import com.intellij.codeInspection.LocalInspectionToolSession;
 import com.intellij.codeInspection.ProblemsHolder;
-import com.intellij.psi.JavaElementVisitor;
 import com.intellij.psi.PsiAnnotation;
 import com.intellij.psi.PsiClass;
 import com.intellij.psi.PsiElement;
 import com.intellij.psi.PsiElementVisitor;
 import org.jboss.errai.idea.plugin.ui.TemplateDataField;
 import org.jboss.errai.idea.plugin.ui.TemplateUtil;
-import org.jboss.errai.idea.plugin.ui.model.TemplateMetaData;
 import org.jboss.errai.idea.plugin.util.AnnotationValueElement;
+import org.jboss.errai.idea.plugin.util.ErraiAnnotationVisitor;
 import org.jboss.errai.idea.plugin.util.Types;
 import org.jboss.errai.idea.plugin.util.Util;
 import org.jetbrains.annotations.Nls;
@@ -72,37 +72,43 @@ public class UiDataFieldIsValidInspection extends BaseJavaLocalInspectionTool {
 
   @NotNull
   @Override
-  public PsiElementVisitor buildVisitor(@NotNull final ProblemsHolder holder, final boolean isOnTheFly) {
-    return new MyJavaElementVisitor(holder);
+  public PsiElementVisitor buildVisitor(@NotNull final ProblemsHolder holder,
+                                        final boolean isOnTheFly,
+                                        @NotNull final LocalInspectionToolSession session) {
+    if (!Util.isErraiFile(holder.getFile())) {
+      return PsiElementVisitor.EMPTY_VISITOR;
+    }
+    return new MyJavaElementVisitor(holder, session);
   }
 
-  private static class MyJavaElementVisitor extends JavaElementVisitor {
+  private static class MyJavaElementVisitor extends ErraiAnnotationVisitor {
     private final ProblemsHolder holder;
+    private final LocalInspectionToolSession session;
 
-    public MyJavaElementVisitor(ProblemsHolder holder) {
+    public MyJavaElementVisitor(ProblemsHolder holder, LocalInspectionToolSession session) {
+      super(session, Types.DATAFIELD);
       this.holder = holder;
+      this.session = session;
     }
 
     @Override
-    public void visitAnnotation(PsiAnnotation annotation) {
-      final String qualifiedName = annotation.getQualifiedName();
-      if (qualifiedName != null) {
-        if (qualifiedName.equals(Types.DATAFIELD)) {
-          ensureDataFieldIsValid(holder, annotation);
-        }
-      }
+    protected void visitErraiAnnotation(PsiAnnotation annotation, String qualifiedName) {
+      ensureDataFieldIsValid(holder, annotation, TemplateValidationContext.getContext(session, annotation));
     }
   }
 
   public static void ensureDataFieldIsValid(ProblemsHolder holder,
                                             PsiAnnotation annotation) {
+    ensureDataFieldIsValid(holder, annotation, TemplateValidationContext.getContext(null, annotation));
+  }
 
-    final TemplateMetaData templateMetaData = TemplateUtil.getTemplateMetaData(annotation);
-    if (templateMetaData == null) {
+  public static void ensureDataFieldIsValid(ProblemsHolder holder,
+                                            PsiAnnotation annotation,
+                                            TemplateValidationContext context) {
+    if (context.getMetaData() == null) {
       return;
     }
-    final Multimap<String, TemplateDataField> allDataFieldTags
-        = templateMetaData.getAllDataFieldsInTemplate(false);
+    final Multimap<String, TemplateDataField> allDataFieldTags = context.getInScopeDataFields();
 
     final PsiElement ownerElement = Util.getImmediateOwnerElement(annotation);
 
@@ -113,15 +119,14 @@ public class UiDataFieldIsValidInspection extends BaseJavaLocalInspectionTool {
       return;
     }
 
-    final TemplateUtil.DataFieldExistence dataFieldExistence = TemplateUtil.dataFieldExistenceCheck(annotation, templateMetaData);
-    final AnnotationValueElement annoValueEl = Util.getValueStringFromAnnotationWithDefault(annotation);
-    final String annoValue = annoValueEl.getValue();
+    final TemplateUtil.DataFieldExistence dataFieldExistence
+        = context.getDataFieldExistence(annotationValue.getValue());
     if (dataFieldExistence != TemplateUtil.DataFieldExistence.EXISTS) {
       if (dataFieldExistence == TemplateUtil.DataFieldExistence.OUT_OF_SCOPE) {
-        holder.registerProblem(annoValueEl.getLogicalElement(), "Data-field is out of scope (it is not an descendant of the template root node)");
+        holder.registerProblem(annotationValue.getLogicalElement(), "Data-field is out of scope (it is not an descendant of the template root node)");
       }
       else {
-        holder.registerProblem(annoValueEl.getLogicalElement(), "Cannot resolve data-field: " + annoValueEl.getValue());
+        holder.registerProblem(annotationValue.getLogicalElement(), "Cannot resolve data-field: " + annotationValue.getValue());
       }
       return;
     }
@@ -19,11 +19,11 @@ package org.jboss.errai.idea.plugin.ui.inspection;
 import com.intellij.codeHighlighting.HighlightDisplayLevel;
 import com.intellij.codeInsight.daemon.GroupNames;
 import com.intellij.codeInspection.BaseJavaLocalInspectionTool;
+import com.intellij.codeInspection.LocalInspectionToolSession;
 import com.intellij.codeInspection.LocalQuickFix;
 import com.intellij.codeInspection.ProblemDescriptor;
 import com.intellij.codeInspection.ProblemsHolder;
 import com.intellij.openapi.project.Project;
-import com.intellij.psi.JavaElementVisitor;
 import com.intellij.psi.JavaPsiFacade;
 import com.intellij.psi.PsiAnnotation;
 import com.intellij.psi.PsiClass;
@@ -39,8 +39,8 @@ import com.intellij.psi.search.ProjectScope;
 import com.intellij.psi.util.PsiUtil;
 import org.jboss.errai.idea.plugin.ui.TemplateUtil;
 import org.jboss.errai.idea.plugin.ui.model.ConsolidateDataFieldElementResult;
-import org.jboss.errai.idea.plugin.ui.model.TemplateMetaData;
 import org.jboss.errai.idea.plugin.util.AnnotationValueElement;
+import org.jboss.errai.idea.plugin.util.ErraiAnnotationVisitor;
 import org.jboss.errai.idea.plugin.util.Types;
 import org.jboss.errai.idea.plugin.util.Util;
 import org.jetbrains.annotations.Nls;
@@ -85,32 +85,40 @@ public class UiEventHandlerInspection extends BaseJavaLocalInspectionTool {
 
   @NotNull
   @Override
-  public PsiElementVisitor buildVisitor(@NotNull final ProblemsHolder holder, final boolean isOnTheFly) {
-    return new MyJavaElementVisitor(holder);
+  public PsiElementVisitor buildVisitor(@NotNull final ProblemsHolder holder,
+                                        final boolean isOnTheFly,
+                                        @NotNull final LocalInspectionToolSession session) {
+    if (!Util.isErraiFile(holder.getFile())) {
+      return PsiElementVisitor.EMPTY_VISITOR;
+    }
+    return new MyJavaElementVisitor(holder, session);
   }
 
-  private static class MyJavaElementVisitor extends JavaElementVisitor {
+  private static class MyJavaElementVisitor extends ErraiAnnotationVisitor {
     private final ProblemsHolder holder;
+    private final LocalInspectionToolSession session;
 
-    public MyJavaElementVisitor(ProblemsHolder holder) {
+    public MyJavaElementVisitor(ProblemsHolder holder, LocalInspectionToolSession session) {
+      super(session, Types.EVENTHANDLER);
       this.holder = holder;
+      this.session = session;
     }
 
     @Override
-    public void visitAnnotation(PsiAnnotation annotation) {
-      final String qualifiedName = annotation.getQualifiedName();
-      if (qualifiedName != null) {
-        if (qualifiedName.equals(Types.EVENTHANDLER)) {
-          ensureEventHandlerIsValid(holder, annotation);
-        }
-      }
+    protected void visitErraiAnnotation(PsiAnnotation annotation, String qualifiedName) {
+      ensureEventHandlerIsValid(holder, annotation, TemplateValidationContext.getContext(session, annotation));
     }
   }
 
   public static void ensureEventHandlerIsValid(ProblemsHolder holder,
                                                 PsiAnnotation annotation) {
-     final TemplateMetaData metaData = TemplateUtil.getTemplateMetaData(annotation);
-     if (metaData == null) {
+    ensureEventHandlerIsValid(holder, annotation, TemplateValidationContext.getContext(null, annotation));
+  }
+
+  public static void ensureEventHandlerIsValid(ProblemsHolder holder,
+                                                PsiAnnotation annotation,
+                                                TemplateValidationContext context) {
+     if (context.getMetaData() == null) {
        return;
      }
 
@@ -148,8 +156,8 @@ public class UiEventHandlerInspection extends BaseJavaLocalInspectionTool {
          .findClass(parameterTypeFQN, ProjectScope.getAllScope(project));
      final boolean isGWTeventType = Util.typeIsAssignableFrom(psiClassParameterType, Types.GWT_EVENT_TYPE);
 
-     final TemplateUtil.DataFieldExistence dataFieldExistence = TemplateUtil.dataFieldExistenceCheck(annotation, metaData);
-     final Map<String, ConsolidateDataFieldElementResult> dataFields = metaData.getConsolidatedDataFields();
+     final TemplateUtil.DataFieldExistence dataFieldExistence = context.getDataFieldExistence(annoValue);
+     final Map<String, ConsolidateDataFieldElementResult> dataFields = context.getConsolidatedDataFields();
 
      if (dataFieldExistence != TemplateUtil.DataFieldExistence.EXISTS) {
        if (dataFieldExistence == TemplateUtil.DataFieldExistence.OUT_OF_SCOPE) {
@@ -0,0 +1,78 @@
+/*
+ * Copyright 2013 Red Hat, Inc.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package org.jboss.errai.idea.plugin.ui.model;
+
+import com.intellij.openapi.vfs.VirtualFile;
+
+import java.util.Map;
+
+/**
+ * Holds the consolidated data-fields of a <tt>@Templated</tt> class, together with the stamps of everything they
+ * were computed from: the Java file of the class, the Java structure of the project (for data-fields inherited
+ * from super classes), the template resolution of the project, and the template file itself.
+ *
+ * @author Mike Brock
+ */
+public class ConsolidatedDataFieldsCacheHolder {
+  private final long classTime;
+  private final long structureModificationCount;
+  private final long resolutionModificationCount;
+  private final VirtualFile templateFile;
+  private final long templateTime;
+  private final Map<String, ConsolidateDataFieldElementResult> dataFields;
+
+  public ConsolidatedDataFieldsCacheHolder(long classTime,
+                                           long structureModificationCount,
+                                           long resolutionModificationCount,
+                                           VirtualFile templateFile,
+                                           long templateTime,
+                                           Map<String, ConsolidateDataFieldElementResult> dataFields) {
+    this.classTime = classTime;
+    this.structureModificationCount = structureModificationCount;
+    this.resolutionModificationCount = resolutionModificationCount;
+    this.templateFile = templateFile;
+    this.templateTime = templateTime;
+    this.dataFields = dataFields;
+  }
+
+  public long getClassTime() {
+    return classTime;
+  }
+
+  public long getStructureModificationCount() {
+    return structureModificationCount;
+  }
+
+  public long getResolutionModificationCount() {
+    return resolutionModificationCount;
+  }
+
+  /**
+   * @return the template the data-fields were consolidated with, or <tt>null</tt> if it could not be resolved.
+   */
+  public VirtualFile getTemplateFile() {
+    return templateFile;
+  }
+
+  public long getTemplateTime() {
+    return templateTime;
+  }
+
+  public Map<String, ConsolidateDataFieldElementResult> getDataFields() {
+    return dataFields;
+  }
+}
@@ -16,26 +16,199 @@
 
 package org.jboss.errai.idea.plugin.ui.model;
 
-import com.google.common.collect.Multimap;
+import com.google.common.collect.ImmutableMultimap;
+import com.google.common.collect.ImmutableSetMultimap;
+import com.intellij.openapi.util.TextRange;
+import com.intellij.psi.PsiElement;
+import com.intellij.psi.PsiFile;
+import com.intellij.psi.xml.XmlTag;
 import org.jboss.errai.idea.plugin.ui.TemplateDataField;
+import org.jboss.errai.idea.plugin.ui.TemplateDataFieldTable;
+
+import java.lang.ref.SoftReference;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 
 /**
-* @author Mike Brock
-*/
+ * Holds the {@link TemplateDataFieldTable} of a template. The multimap views handed out to callers are built
+ * from the table on demand and shared until memory runs low. Views scoped to a root node are keyed by the root
+ * node of the template expression, and only the most recently used {@link #MAX_SCOPED_VIEWS} are kept.
+ * <p/>
+ * PSI changes to the template are recorded with {@link #markChanged(PsiElement)} as the outermost changed tag
+ * which carries a data-field, together with the current end offset of that tag. The table is then stale, but
+ * only the subtrees of those tags have to be rescanned, and the offsets of all other entries can be shifted.
+ *
+ * @author Mike Brock
+ */
 public class DataFieldCacheHolder {
+  public static final int MAX_SCOPED_VIEWS = 8;
+
   private final long time;
-  private final Multimap<String, TemplateDataField> value;
+  private final PsiFile templateFile;
+  private final TemplateDataFieldTable table;
 
-  public DataFieldCacheHolder(long time, Multimap<String, TemplateDataField> value) {
+  private SoftReference<ImmutableMultimap<String, TemplateDataField>> value;
+  private final Map<String, SoftReference<ImmutableMultimap<String, TemplateDataField>>> scopedViews
+      = new LinkedHashMap<String, SoftReference<ImmutableMultimap<String, TemplateDataField>>>(16, 0.75f, true) {
+    @Override
+    protected boolean removeEldestEntry(
+        Map.Entry<String, SoftReference<ImmutableMultimap<String, TemplateDataField>>> eldest) {
+      return size() > MAX_SCOPED_VIEWS;
+    }
+  };
+
+  private final Map<Integer, Integer> changedSubtrees = new LinkedHashMap<Integer, Integer>();
+  private boolean rescanRequired;
+
+  public DataFieldCacheHolder(long time, PsiFile templateFile, TemplateDataFieldTable table) {
     this.time = time;
-    this.value = value;
+    this.templateFile = templateFile;
+    this.table = table;
   }
 
   public long getTime() {
     return time;
   }
 
-  public Multimap<String, TemplateDataField> getValue() {
-    return value;
+  public TemplateDataFieldTable getTable() {
+    return table;
+  }
+
+  public synchronized ImmutableMultimap<String, TemplateDataField> getValue() {
+    ImmutableMultimap<String, TemplateDataField> result = value == null ? null : value.get();
+    if (result == null) {
+      final ImmutableSetMultimap.Builder<String, TemplateDataField> builder = ImmutableSetMultimap.builder();
+      for (int i = 0; i < table.size(); i++) {
+        builder.put(table.getName(i), table.createDataField(templateFile, i));
+      }
+      value = new SoftReference<ImmutableMultimap<String, TemplateDataField>>(result = builder.build());
+    }
+    return result;
+  }
+
+  /**
+   * @return the memoized view containing only the descendants of the specified root node, or <tt>null</tt>.
+   */
+  public ImmutableMultimap<String, TemplateDataField> getScopedView(String rootNode) {
+    synchronized (scopedViews) {
+      final SoftReference<ImmutableMultimap<String, TemplateDataField>> view = scopedViews.get(rootNode);
+      return view == null ? null : view.get();
+    }
+  }
+
+  public ImmutableMultimap<String, TemplateDataField> putScopedView(String rootNode,
+                                                                   ImmutableMultimap<String, TemplateDataField> view) {
+    synchronized (scopedViews) {
+      final ImmutableMultimap<String, TemplateDataField> existing = getScopedView(rootNode);
+      if (existing != null) {
+        return existing;
+      }
+      scopedViews.put(rootNode, new SoftReference<ImmutableMultimap<String, TemplateDataField>>(view));
+      return view;
+    }
+  }
+
+  /**
+   * Records a change of the specified element in the template. Tags inside an already changed subtree are
+   * skipped, and the offsets of all other tags are mapped back to the offsets in the table before they are
+   * looked up.
+   */
+  public void markChanged(PsiElement changed) {
+    synchronized (changedSubtrees) {
+      if (rescanRequired) {
+        return;
+      }
+
+      PsiElement el = changed;
+      while (el != null && !(el instanceof PsiFile)) {
+        if (el instanceof XmlTag) {
+          final TextRange range = el.getTextRange();
+          if (!isInsideChangedSubtree(range.getStartOffset())) {
+            final int entry = table.findTag(toTableOffset(range.getStartOffset()));
+            if (entry != -1) {
+              changedSubtrees.put(entry, range.getEndOffset());
+              return;
+            }
+          }
+        }
+        el = el.getParent();
+      }
+
+      rescanRequired = true;
+    }
+  }
+
+  private boolean isInsideChangedSubtree(int offset) {
+    for (int entry : getOutermostChangedSubtrees()) {
+      final int start = toCurrentOffset(table.getTagStartOffset(entry));
+      if (start < offset && offset < changedSubtrees.get(entry)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private int toTableOffset(int currentOffset) {
+    int offset = currentOffset;
+    for (int entry : getOutermostChangedSubtrees()) {
+      final int currentEnd = changedSubtrees.get(entry);
+      if (currentEnd <= currentOffset) {
+        offset -= currentEnd - table.getTagEndOffset(entry);
+      }
+    }
+    return offset;
+  }
+
+  private int toCurrentOffset(int tableOffset) {
+    int offset = tableOffset;
+    for (int entry : getOutermostChangedSubtrees()) {
+      if (table.getTagEndOffset(entry) <= tableOffset) {
+        offset += changedSubtrees.get(entry) - table.getTagEndOffset(entry);
+      }
+    }
+    return offset;
+  }
+
+  private List<Integer> getOutermostChangedSubtrees() {
+    final List<Integer> outermost = new ArrayList<Integer>();
+    for (int entry : changedSubtrees.keySet()) {
+      boolean nested = false;
+      for (int other : changedSubtrees.keySet()) {
+        if (table.isDescendant(entry, other)) {
+          nested = true;
+          break;
+        }
+      }
+      if (!nested) {
+        outermost.add(entry);
+      }
+    }
+    return outermost;
+  }
+
+  public boolean isChanged() {
+    synchronized (changedSubtrees) {
+      return rescanRequired || !changedSubtrees.isEmpty();
+    }
+  }
+
+  /**
+   * @return the outermost changed subtrees, as table entries mapped to the current end offset of their tag, or
+   *         <tt>null</tt> if the whole template has to be rescanned.
+   */
+  public Map<Integer, Integer> getChangedSubtrees() {
+    synchronized (changedSubtrees) {
+      if (rescanRequired || changedSubtrees.isEmpty()) {
+        return null;
+      }
+
+      final Map<Integer, Integer> result = new LinkedHashMap<Integer, Integer>();
+      for (int entry : getOutermostChangedSubtrees()) {
+        result.put(entry, changedSubtrees.get(entry));
+      }
+      return result;
+    }
   }
 }
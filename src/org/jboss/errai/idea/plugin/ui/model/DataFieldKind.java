@@ -0,0 +1,36 @@
+/*
+ * Copyright 2013 Red Hat, Inc.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package org.jboss.errai.idea.plugin.ui.model;
+
+/**
+ * The template attribute a data-field name was declared with.
+ *
+ * @author Mike Brock
+ */
+public enum DataFieldKind {
+  DATA_FIELD("data-field"), ID("id"), CLASS("class");
+
+  private final String attributeName;
+
+  DataFieldKind(String attributeName) {
+    this.attributeName = attributeName;
+  }
+
+  public String getAttributeName() {
+    return attributeName;
+  }
+}
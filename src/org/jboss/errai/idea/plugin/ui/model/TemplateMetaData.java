@@ -30,6 +30,9 @@ import java.util.Collections;
 import java.util.Map;
 
 /**
+ * Describes the template of a <tt>@Templated</tt> class. The template file, its root tag and its data-fields are
+ * only looked up when first requested, and are then memoized for the lifetime of this instance.
+ *
  * @author Mike Brock
  */
 public class TemplateMetaData {
@@ -37,23 +40,32 @@ public class TemplateMetaData {
   private boolean defaultReference;
   private final PsiNameValuePair attribute;
   private final PsiClass templateClass;
-  private final VirtualFile templateFile;
-  private final XmlTag rootTag;
+  private final String templateFileName;
   private final Project project;
 
+  private volatile boolean templateFileResolved;
+  private volatile VirtualFile templateFile;
+  private volatile boolean rootTagResolved;
+  private volatile XmlTag rootTag;
+  private volatile Multimap<String, TemplateDataField> allDataFields;
+  private volatile Multimap<String, TemplateDataField> inScopeDataFields;
+
+  /**
+   * @param templateFileName
+   *     the name of the template file, relative to the template class, as given by the template expression or
+   *     derived from the class name.
+   */
   public TemplateMetaData(TemplateExpression templateExpression,
                           boolean defaultReference,
                           PsiNameValuePair attribute,
                           PsiClass templateClass,
-                          VirtualFile templateFile,
-                          XmlTag rootTag,
+                          String templateFileName,
                           Project project) {
     this.templateExpression = templateExpression;
     this.defaultReference = defaultReference;
     this.attribute = attribute;
     this.templateClass = templateClass;
-    this.templateFile = templateFile;
-    this.rootTag = rootTag;
+    this.templateFileName = templateFileName;
     this.project = project;
   }
 
@@ -70,6 +82,10 @@ public class TemplateMetaData {
   }
 
   public VirtualFile getTemplateFile() {
+    if (!templateFileResolved) {
+      templateFile = TemplateUtil.resolveTemplateFile(templateClass, templateFileName);
+      templateFileResolved = true;
+    }
     return templateFile;
   }
 
@@ -78,12 +94,31 @@ public class TemplateMetaData {
   }
 
   public XmlTag getRootTag() {
+    if (!rootTagResolved) {
+      rootTag = TemplateUtil.findRootTag(getTemplateFile(), templateExpression.getRootNode(), project);
+      rootTagResolved = true;
+    }
     return rootTag;
   }
 
+  public Project getProject() {
+    return project;
+  }
+
   @NotNull
   public Multimap<String, TemplateDataField> getAllDataFieldsInTemplate(boolean includeRootTag) {
-    return TemplateUtil.findAllDataFieldTags(this, project, includeRootTag);
+    if (includeRootTag) {
+      if (allDataFields == null) {
+        allDataFields = TemplateUtil.findAllDataFieldTags(this, project, true);
+      }
+      return allDataFields;
+    }
+    else {
+      if (inScopeDataFields == null) {
+        inScopeDataFields = TemplateUtil.findAllDataFieldTags(this, project, false);
+      }
+      return inScopeDataFields;
+    }
   }
 
   public Map<String, ConsolidateDataFieldElementResult> getConsolidatedDataFields() {
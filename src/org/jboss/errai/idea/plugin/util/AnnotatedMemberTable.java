@@ -0,0 +1,132 @@
+/*
+ * Copyright 2013 Red Hat, Inc.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package org.jboss.errai.idea.plugin.util;
+
+import com.intellij.psi.PsiAnnotation;
+import com.intellij.psi.PsiClass;
+import com.intellij.psi.PsiField;
+import com.intellij.psi.PsiMethod;
+import com.intellij.psi.PsiModifierList;
+import com.intellij.psi.PsiModifierListOwner;
+import com.intellij.psi.PsiParameter;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Table of the annotations on the fields, methods and method parameters of a class, including inherited members,
+ * keyed by the qualified name of the annotation. The table is built in a single traversal of the class, which
+ * resolves the name of every annotation only once, so looking up the elements annotated with any type is a map
+ * lookup.
+ * <p/>
+ * The table records the time stamps it was built from: the modification stamp of the file declaring the class,
+ * and the Java structure modification count of the project, which covers changes to the super classes.
+ *
+ * @author Mike Brock
+ */
+public class AnnotatedMemberTable {
+  private final PsiClass bean;
+  private final long time;
+  private final long structureModificationCount;
+  private final Map<String, List<AnnotationSearchResult>> elementsByAnnotation;
+
+  private AnnotatedMemberTable(PsiClass bean,
+                               long time,
+                               long structureModificationCount,
+                               Map<String, List<AnnotationSearchResult>> elementsByAnnotation) {
+    this.bean = bean;
+    this.time = time;
+    this.structureModificationCount = structureModificationCount;
+    this.elementsByAnnotation = elementsByAnnotation;
+  }
+
+  public static AnnotatedMemberTable build(PsiClass bean, long time, long structureModificationCount) {
+    final Map<String, List<AnnotationSearchResult>> elementsByAnnotation
+        = new HashMap<String, List<AnnotationSearchResult>>();
+
+    for (PsiField e : bean.getAllFields()) {
+      addAnnotations(elementsByAnnotation, e);
+    }
+
+    for (PsiMethod e : bean.getAllMethods()) {
+      addAnnotations(elementsByAnnotation, e);
+
+      for (PsiParameter p : e.getParameterList().getParameters()) {
+        addAnnotations(elementsByAnnotation, p);
+      }
+    }
+
+    return new AnnotatedMemberTable(bean, time, structureModificationCount, elementsByAnnotation);
+  }
+
+  private static void addAnnotations(Map<String, List<AnnotationSearchResult>> elementsByAnnotation,
+                                     PsiModifierListOwner element) {
+    final PsiModifierList modifierList = element.getModifierList();
+    if (modifierList == null) {
+      return;
+    }
+
+    final PsiAnnotation[] annotations = modifierList.getAnnotations();
+    if (annotations.length == 0) {
+      return;
+    }
+
+    // like Util.getAnnotationFromElement, only the first annotation of each type is recorded for an element
+    final Set<String> seen = new HashSet<String>(annotations.length);
+    for (PsiAnnotation annotation : annotations) {
+      final String qualifiedName = annotation.getQualifiedName();
+      if (qualifiedName == null || !seen.add(qualifiedName)) {
+        continue;
+      }
+
+      List<AnnotationSearchResult> elements = elementsByAnnotation.get(qualifiedName);
+      if (elements == null) {
+        elementsByAnnotation.put(qualifiedName, elements = new ArrayList<AnnotationSearchResult>(4));
+      }
+      elements.add(new AnnotationSearchResult(annotation, element));
+    }
+  }
+
+  public PsiClass getBean() {
+    return bean;
+  }
+
+  public long getTime() {
+    return time;
+  }
+
+  public long getStructureModificationCount() {
+    return structureModificationCount;
+  }
+
+  /**
+   * @return the elements annotated with the specified annotation type, in declaration order.
+   */
+  public Collection<AnnotationSearchResult> getAnnotatedElements(String annotationType) {
+    final List<AnnotationSearchResult> elements = elementsByAnnotation.get(annotationType);
+    if (elements == null) {
+      return Collections.emptyList();
+    }
+    return Collections.unmodifiableList(elements);
+  }
+}
@@ -0,0 +1,100 @@
+/*
+ * Copyright 2013 Red Hat, Inc.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package org.jboss.errai.idea.plugin.util;
+
+import com.intellij.codeInspection.LocalInspectionToolSession;
+import com.intellij.openapi.util.Key;
+import com.intellij.psi.JavaElementVisitor;
+import com.intellij.psi.PsiAnnotation;
+import com.intellij.psi.PsiJavaCodeReferenceElement;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Visitor for inspections which check Errai annotations. Only annotations of the specified types are passed on to
+ * {@link #visitErraiAnnotation(PsiAnnotation, String)}.
+ * <p/>
+ * Resolving the qualified name of an annotation is the expensive part of matching it, so annotations whose short
+ * name cannot be one of the specified types are skipped without being resolved, and the qualified names which are
+ * resolved are kept in the {@link LocalInspectionToolSession} of the inspection pass. Each annotation in a file is
+ * therefore resolved at most once per pass, however many Errai inspections look at it.
+ *
+ * @author Mike Brock
+ */
+public abstract class ErraiAnnotationVisitor extends JavaElementVisitor {
+  private static final Key<ConcurrentMap<PsiAnnotation, String>> qualifiedNamesKey
+      = Key.create("errai.AnnotationQualifiedNames");
+
+  /**
+   * Recorded for annotations which cannot be resolved, as the map cannot hold <tt>null</tt>.
+   */
+  private static final String UNRESOLVED = "";
+
+  private final LocalInspectionToolSession session;
+  private final Set<String> annotationTypes = new HashSet<String>();
+  private final Set<String> shortNames = new HashSet<String>();
+
+  protected ErraiAnnotationVisitor(LocalInspectionToolSession session, String... annotationTypes) {
+    this.session = session;
+    for (String annotationType : annotationTypes) {
+      this.annotationTypes.add(annotationType);
+      this.shortNames.add(annotationType.substring(annotationType.lastIndexOf('.') + 1));
+    }
+  }
+
+  @Override
+  public void visitAnnotation(PsiAnnotation annotation) {
+    final PsiJavaCodeReferenceElement nameReference = annotation.getNameReferenceElement();
+    if (nameReference == null || !shortNames.contains(nameReference.getReferenceName())) {
+      return;
+    }
+
+    final String qualifiedName = getQualifiedName(session, annotation);
+    if (qualifiedName != null && annotationTypes.contains(qualifiedName)) {
+      visitErraiAnnotation(annotation, qualifiedName);
+    }
+  }
+
+  /**
+   * Called for every annotation of one of the types this visitor was created for.
+   */
+  protected abstract void visitErraiAnnotation(PsiAnnotation annotation, String qualifiedName);
+
+  /**
+   * @return the qualified name of the annotation, resolved at most once per inspection pass.
+   */
+  public static String getQualifiedName(LocalInspectionToolSession session, PsiAnnotation annotation) {
+    if (session == null) {
+      return annotation.getQualifiedName();
+    }
+
+    ConcurrentMap<PsiAnnotation, String> qualifiedNames = session.getUserData(qualifiedNamesKey);
+    if (qualifiedNames == null) {
+      qualifiedNames = session.putUserDataIfAbsent(qualifiedNamesKey, new ConcurrentHashMap<PsiAnnotation, String>());
+    }
+
+    String qualifiedName = qualifiedNames.get(annotation);
+    if (qualifiedName == null) {
+      qualifiedName = annotation.getQualifiedName();
+      qualifiedNames.put(annotation, qualifiedName == null ? UNRESOLVED : qualifiedName);
+    }
+    return qualifiedName == null || qualifiedName.equals(UNRESOLVED) ? null : qualifiedName;
+  }
+}
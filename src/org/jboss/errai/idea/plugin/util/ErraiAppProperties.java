@@ -0,0 +1,252 @@
+/*
+ * Copyright 2013 Red Hat, Inc.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package org.jboss.errai.idea.plugin.util;
+
+import com.intellij.ProjectTopics;
+import com.intellij.openapi.components.ProjectComponent;
+import com.intellij.openapi.module.Module;
+import com.intellij.openapi.module.ModuleUtilCore;
+import com.intellij.openapi.project.DumbService;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.roots.ModuleRootAdapter;
+import com.intellij.openapi.roots.ModuleRootEvent;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.openapi.vfs.VirtualFileManager;
+import com.intellij.openapi.vfs.newvfs.BulkFileListener;
+import com.intellij.openapi.vfs.newvfs.events.VFileDeleteEvent;
+import com.intellij.openapi.vfs.newvfs.events.VFileEvent;
+import com.intellij.openapi.vfs.newvfs.events.VFileMoveEvent;
+import com.intellij.openapi.vfs.newvfs.events.VFilePropertyChangeEvent;
+import com.intellij.psi.PsiElement;
+import com.intellij.psi.PsiFile;
+import com.intellij.psi.PsiManager;
+import com.intellij.psi.PsiTreeChangeAdapter;
+import com.intellij.psi.PsiTreeChangeEvent;
+import com.intellij.psi.search.GlobalSearchScope;
+import com.intellij.util.indexing.FileBasedIndex;
+import com.intellij.util.messages.MessageBusConnection;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Gives the type lists configured in the <tt>ErraiApp.properties</tt> files visible from a module, as read by
+ * {@link ErraiAppPropertiesIndex}. A module sees the files of its dependencies and libraries, and those of the
+ * modules depending on it, as a model or binding class is configured by the application which includes it. The
+ * sets are cached per module, and the cache is only dropped when an
+ * <tt>ErraiApp.properties</tt> file is edited, created, deleted, moved or renamed, or when the module roots
+ * change.
+ *
+ * @author Mike Brock
+ */
+public class ErraiAppProperties implements ProjectComponent {
+  public static final String BINDABLE_TYPES = "errai.ui.bindableTypes";
+  public static final String SERIALIZABLE_TYPES = "errai.marshalling.serializableTypes";
+
+  private final Project project;
+
+  /**
+   * The configured types, keyed by the module they are visible from (or by the project for the whole project),
+   * then by property name.
+   */
+  private final ConcurrentMap<Object, ConcurrentMap<String, Set<String>>> typesByScope
+      = new ConcurrentHashMap<Object, ConcurrentMap<String, Set<String>>>();
+
+  private volatile long modificationCount;
+
+  public ErraiAppProperties(Project project) {
+    this.project = project;
+  }
+
+  public static ErraiAppProperties getInstance(Project project) {
+    return project.getComponent(ErraiAppProperties.class);
+  }
+
+  /**
+   * Returns the types listed by the specified property in the <tt>ErraiApp.properties</tt> files visible from the
+   * module containing the specified element: those of the module, of its dependencies and libraries, and of the
+   * modules depending on it. If the element does not belong to a module, the whole project is searched.
+   */
+  public static Set<String> getTypes(PsiElement element, String propertyName) {
+    final Module module = ModuleUtilCore.findModuleForPsiElement(element);
+    if (module == null) {
+      return getTypes(element.getProject(), propertyName);
+    }
+    return getInstance(module.getProject())
+        .getTypes(module, module.getModuleWithDependenciesAndLibrariesScope(true)
+            .uniteWith(GlobalSearchScope.moduleWithDependentsScope(module)), propertyName);
+  }
+
+  /**
+   * Returns the types listed by the specified property in all <tt>ErraiApp.properties</tt> files of the project
+   * and its libraries.
+   */
+  public static Set<String> getTypes(Project project, String propertyName) {
+    return getInstance(project).getTypes(project, GlobalSearchScope.allScope(project), propertyName);
+  }
+
+  private Set<String> getTypes(Object scopeKey, GlobalSearchScope scope, String propertyName) {
+    ConcurrentMap<String, Set<String>> types = typesByScope.get(scopeKey);
+    if (types == null) {
+      final ConcurrentMap<String, Set<String>> newTypes = new ConcurrentHashMap<String, Set<String>>();
+      types = typesByScope.putIfAbsent(scopeKey, newTypes);
+      if (types == null) {
+        types = newTypes;
+      }
+    }
+
+    Set<String> result = types.get(propertyName);
+    if (result != null) {
+      return result;
+    }
+
+    if (DumbService.isDumb(project)) {
+      return Collections.emptySet();
+    }
+
+    final long count = modificationCount;
+
+    result = new HashSet<String>();
+    for (List<String> values : FileBasedIndex.getInstance().getValues(ErraiAppPropertiesIndex.NAME, propertyName,
+        scope)) {
+      result.addAll(values);
+    }
+    result = Collections.unmodifiableSet(result);
+
+    // do not cache what was read while a properties file was changing
+    if (count == modificationCount) {
+      types.put(propertyName, result);
+    }
+    return result;
+  }
+
+  /**
+   * @return a counter which is incremented every time the cached types are dropped, so that anything derived from
+   *         the configured types can tell whether they may have changed.
+   */
+  public long getModificationCount() {
+    return modificationCount;
+  }
+
+  private void clear() {
+    modificationCount++;
+    typesByScope.clear();
+  }
+
+  private static boolean isErraiAppProperties(String fileName) {
+    return ErraiAppPropertiesIndex.FILE_NAME.equals(fileName);
+  }
+
+  private static boolean isErraiAppPropertiesEvent(VFileEvent event) {
+    final String path = event.getPath();
+    if (isErraiAppProperties(path.substring(path.lastIndexOf('/') + 1))) {
+      return true;
+    }
+
+    if (event instanceof VFilePropertyChangeEvent) {
+      final VFilePropertyChangeEvent propertyChange = (VFilePropertyChangeEvent) event;
+      return VirtualFile.PROP_NAME.equals(propertyChange.getPropertyName())
+          && isErraiAppProperties(String.valueOf(propertyChange.getNewValue()));
+    }
+
+    // a properties file may have been deleted or moved along with its directory
+    final VirtualFile file = event.getFile();
+    return (event instanceof VFileDeleteEvent || event instanceof VFileMoveEvent)
+        && file != null && file.isDirectory();
+  }
+
+  @Override
+  public void projectOpened() {
+    final MessageBusConnection connection = project.getMessageBus().connect(project);
+
+    connection.subscribe(ProjectTopics.PROJECT_ROOTS, new ModuleRootAdapter() {
+      @Override
+      public void rootsChanged(ModuleRootEvent event) {
+        clear();
+      }
+    });
+
+    connection.subscribe(VirtualFileManager.VFS_CHANGES, new BulkFileListener() {
+      @Override
+      public void before(@NotNull List<? extends VFileEvent> events) {
+      }
+
+      @Override
+      public void after(@NotNull List<? extends VFileEvent> events) {
+        for (VFileEvent event : events) {
+          if (isErraiAppPropertiesEvent(event)) {
+            clear();
+            return;
+          }
+        }
+      }
+    });
+
+    // edits which have not been saved yet
+    PsiManager.getInstance(project).addPsiTreeChangeListener(new PsiTreeChangeAdapter() {
+      @Override
+      public void childrenChanged(@NotNull PsiTreeChangeEvent event) {
+        changed(event.getFile());
+      }
+
+      @Override
+      public void childAdded(@NotNull PsiTreeChangeEvent event) {
+        changed(event.getFile());
+      }
+
+      @Override
+      public void childRemoved(@NotNull PsiTreeChangeEvent event) {
+        changed(event.getFile());
+      }
+
+      @Override
+      public void childReplaced(@NotNull PsiTreeChangeEvent event) {
+        changed(event.getFile());
+      }
+
+      private void changed(PsiFile file) {
+        if (file != null && isErraiAppProperties(file.getName())) {
+          clear();
+        }
+      }
+    }, project);
+  }
+
+  @Override
+  public void projectClosed() {
+    clear();
+  }
+
+  @Override
+  public void initComponent() {
+  }
+
+  @Override
+  public void disposeComponent() {
+  }
+
+  @NotNull
+  @Override
+  public String getComponentName() {
+    return "ErraiAppProperties";
+  }
+}
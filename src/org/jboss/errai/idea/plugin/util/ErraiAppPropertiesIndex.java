@@ -0,0 +1,145 @@
+/*
+ * Copyright 2013 Red Hat, Inc.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package org.jboss.errai.idea.plugin.util;
+
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.util.indexing.DataIndexer;
+import com.intellij.util.indexing.FileBasedIndex;
+import com.intellij.util.indexing.FileBasedIndexExtension;
+import com.intellij.util.indexing.FileContent;
+import com.intellij.util.indexing.ID;
+import com.intellij.util.io.DataExternalizer;
+import com.intellij.util.io.EnumeratorStringDescriptor;
+import com.intellij.util.io.IOUtil;
+import com.intellij.util.io.KeyDescriptor;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+
+/**
+ * Index of the properties declared in <tt>ErraiApp.properties</tt> files, keyed by the property name. The value
+ * is already split on whitespace, as Errai reads these properties as lists of type names, for example
+ * <tt>errai.ui.bindableTypes</tt> and <tt>errai.marshalling.serializableTypes</tt>.
+ *
+ * @author Mike Brock
+ */
+public class ErraiAppPropertiesIndex extends FileBasedIndexExtension<String, List<String>> {
+  public static final ID<String, List<String>> NAME = ID.create("errai.ErraiAppPropertiesIndex");
+
+  public static final String FILE_NAME = "ErraiApp.properties";
+
+  @NotNull
+  @Override
+  public ID<String, List<String>> getName() {
+    return NAME;
+  }
+
+  @NotNull
+  @Override
+  public DataIndexer<String, List<String>, FileContent> getIndexer() {
+    return new DataIndexer<String, List<String>, FileContent>() {
+      @NotNull
+      @Override
+      public Map<String, List<String>> map(FileContent inputData) {
+        final Properties properties = new Properties();
+        try {
+          properties.load(new StringReader(inputData.getContentAsText().toString()));
+        }
+        catch (IOException e) {
+          return Collections.emptyMap();
+        }
+        catch (IllegalArgumentException e) {
+          // malformed unicode escape
+          return Collections.emptyMap();
+        }
+
+        final Map<String, List<String>> result = new HashMap<String, List<String>>();
+        for (String key : properties.stringPropertyNames()) {
+          final List<String> values = new ArrayList<String>();
+          for (String s : properties.getProperty(key).split("\\s+")) {
+            s = s.trim();
+            if (s.length() != 0) {
+              values.add(s);
+            }
+          }
+          result.put(key, values);
+        }
+        return result;
+      }
+    };
+  }
+
+  @NotNull
+  @Override
+  public KeyDescriptor<String> getKeyDescriptor() {
+    return new EnumeratorStringDescriptor();
+  }
+
+  @NotNull
+  @Override
+  public DataExternalizer<List<String>> getValueExternalizer() {
+    return new DataExternalizer<List<String>>() {
+      @Override
+      public void save(DataOutput out, List<String> value) throws IOException {
+        out.writeInt(value.size());
+        for (String s : value) {
+          IOUtil.writeUTF(out, s);
+        }
+      }
+
+      @Override
+      public List<String> read(DataInput in) throws IOException {
+        final int size = in.readInt();
+        final List<String> values = new ArrayList<String>(size);
+        for (int i = 0; i < size; i++) {
+          values.add(IOUtil.readUTF(in));
+        }
+        return values;
+      }
+    };
+  }
+
+  @NotNull
+  @Override
+  public FileBasedIndex.InputFilter getInputFilter() {
+    return new FileBasedIndex.InputFilter() {
+      @Override
+      public boolean acceptInput(VirtualFile file) {
+        return FILE_NAME.equals(file.getName());
+      }
+    };
+  }
+
+  @Override
+  public boolean dependsOnFileContent() {
+    return true;
+  }
+
+  @Override
+  public int getVersion() {
+    return 1;
+  }
+}
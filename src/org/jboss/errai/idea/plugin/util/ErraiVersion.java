@@ -1,37 +1,81 @@
 package org.jboss.errai.idea.plugin.util;
 
+import com.intellij.openapi.module.Module;
+import com.intellij.openapi.module.ModuleUtilCore;
 import com.intellij.openapi.project.Project;
+import com.intellij.openapi.roots.ProjectRootManager;
+import com.intellij.openapi.util.Key;
+import com.intellij.openapi.util.UserDataHolder;
 import com.intellij.psi.JavaPsiFacade;
 import com.intellij.psi.PsiElement;
 import com.intellij.psi.search.GlobalSearchScope;
 
 /**
+ * Detects the version of Errai on the classpath. The version is detected per module, so that a build mixing
+ * modules on different versions of Errai gets the right answer for each of them, and is cached on the module
+ * until the project roots change.
+ *
  * @author Mike Brock
  */
 public abstract class ErraiVersion {
+  private static final Key<CachedVersion> versionKey = Key.create("erraiVersion");
+
   private ErraiVersion() {}
 
   public static VersionSpec get(final PsiElement element) {
-    return get(element.getProject());
+    final Module module = ModuleUtilCore.findModuleForPsiElement(element);
+    if (module == null) {
+      return get(element.getProject());
+    }
+    return get(module);
+  }
+
+  public static VersionSpec get(final Module module) {
+    return get(module, module.getProject(), module.getModuleWithDependenciesAndLibrariesScope(true));
   }
 
   public static VersionSpec get(final Project project) {
-    if (hasErrai30Types(project)) {
-      return VersionSpec.V3_0;
+    return get(project, project, GlobalSearchScope.allScope(project));
+  }
+
+  private static VersionSpec get(UserDataHolder holder, Project project, GlobalSearchScope scope) {
+    final long rootsModificationCount = ProjectRootManager.getInstance(project).getModificationCount();
+
+    final CachedVersion cached = holder.getUserData(versionKey);
+    if (cached != null && cached.rootsModificationCount == rootsModificationCount) {
+      return cached.version;
     }
-    else if (hasErrai22Types(project)) {
-      return VersionSpec.V2_2;
+
+    final VersionSpec version;
+    if (hasErrai30Types(project, scope)) {
+      version = VersionSpec.V3_0;
+    }
+    else if (hasErrai22Types(project, scope)) {
+      version = VersionSpec.V2_2;
     }
     else {
-      return VersionSpec.NONE;
+      version = VersionSpec.NONE;
     }
+
+    holder.putUserData(versionKey, new CachedVersion(rootsModificationCount, version));
+    return version;
   }
 
-  private static boolean hasErrai30Types(final Project project) {
-    return JavaPsiFacade.getInstance(project).findClass(Types.MODEL, GlobalSearchScope.allScope(project)) != null;
+  private static boolean hasErrai30Types(final Project project, final GlobalSearchScope scope) {
+    return JavaPsiFacade.getInstance(project).findClass(Types.MODEL, scope) != null;
   }
 
-  private static boolean hasErrai22Types(final Project project) {
-    return JavaPsiFacade.getInstance(project).findClass(Types.AUTO_BOUND, GlobalSearchScope.allScope(project)) != null;
+  private static boolean hasErrai22Types(final Project project, final GlobalSearchScope scope) {
+    return JavaPsiFacade.getInstance(project).findClass(Types.AUTO_BOUND, scope) != null;
+  }
+
+  private static class CachedVersion {
+    private final long rootsModificationCount;
+    private final VersionSpec version;
+
+    private CachedVersion(long rootsModificationCount, VersionSpec version) {
+      this.rootsModificationCount = rootsModificationCount;
+      this.version = version;
+    }
   }
 }
@@ -26,8 +26,10 @@ import com.intellij.openapi.util.Key;
 import com.intellij.psi.*;
 import com.intellij.psi.search.FilenameIndex;
 import com.intellij.psi.search.GlobalSearchScope;
+import com.intellij.psi.util.PsiModificationTracker;
 import com.intellij.psi.util.PsiUtil;
 import com.intellij.psi.xml.XmlFile;
+import com.intellij.util.text.CharArrayUtil;
 
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -44,6 +46,11 @@ import java.util.Stack;
 public class Util {
   public static final String INTELLIJ_MAGIC_STRING = "IntellijIdeaRulezzz";
 
+  private static final Key<AnnotatedMemberTable> annotatedMemberTableKey = Key.create("annotatedMemberTable");
+  private static final Key<ErraiFileCacheHolder> erraiFileKey = Key.create("erraiFile");
+
+  private static final String ERRAI_PACKAGE = "org.jboss.errai";
+
   public static PsiClass getErasedTypeParam(Project project, String signature) {
     final String typeParam;
     int typeParamBegin = signature.indexOf('<');
@@ -287,38 +294,37 @@ public class Util {
     return new AnnotationValueElement(value, errorElement);
   }
 
+  /**
+   * Returns the fields, methods and method parameters of the top-level class containing the specified element,
+   * including inherited members, which are annotated with the specified annotation type. The lookup goes through
+   * the {@link AnnotatedMemberTable} of the class, which is cached until the class or the Java structure of the
+   * project changes.
+   */
   public static Collection<AnnotationSearchResult> findAllAnnotatedElements(PsiElement element, String annotation) {
     final PsiClass bean = PsiUtil.getTopLevelClass(element);
     if (bean == null) {
       return Collections.emptyList();
     }
 
-    final List<AnnotationSearchResult> elementList = new ArrayList<AnnotationSearchResult>();
-    PsiAnnotation a;
-    for (PsiField e : bean.getAllFields()) {
-      a = getAnnotationFromElement(e, annotation);
-      if (a != null) {
-        elementList.add(new AnnotationSearchResult(a, e));
-      }
-    }
+    return getAnnotatedMemberTable(bean).getAnnotatedElements(annotation);
+  }
 
-    for (PsiMethod e : bean.getAllMethods()) {
-      a = getAnnotationFromElement(e, annotation);
+  private static AnnotatedMemberTable getAnnotatedMemberTable(final PsiClass bean) {
+    final PsiModificationTracker tracker = PsiManager.getInstance(bean.getProject()).getModificationTracker();
 
-      if (a != null) {
-        elementList.add(new AnnotationSearchResult(a, e));
+    return getOrCreateCache(annotatedMemberTableKey, bean, new CacheProvider<AnnotatedMemberTable>() {
+      @Override
+      public AnnotatedMemberTable provide() {
+        return AnnotatedMemberTable.build(bean, getLastUpdate(bean), tracker.getJavaStructureModificationCount());
       }
 
-      for (PsiParameter p : e.getParameterList().getParameters()) {
-        a = getAnnotationFromElement(p, annotation);
-
-        if (a != null) {
-          elementList.add(new AnnotationSearchResult(a, p));
-        }
+      @Override
+      public boolean isCacheValid(AnnotatedMemberTable table) {
+        return table.getBean() == bean
+            && table.getTime() == getLastUpdate(bean)
+            && table.getStructureModificationCount() == tracker.getJavaStructureModificationCount();
       }
-    }
-
-    return elementList;
+    });
   }
 
   public static boolean fieldElementIsInitialized(PsiElement element) {
@@ -487,6 +493,33 @@ public class Util {
     return FilenameIndex.getFilesByName(project, "ErraiApp.properties", GlobalSearchScope.allScope(project));
   }
 
+  /**
+   * Returns true if the Java file containing the specified element may reference Errai: its package, an import or
+   * a fully qualified name in it mentions <tt>org.jboss.errai</tt>. Inspections and line markers use this to skip
+   * the vast majority of files, such as server code and tests, before doing any other work. The answer is cached
+   * on the file until it is modified.
+   */
+  public static boolean isErraiFile(PsiElement element) {
+    final PsiFile file = element instanceof PsiFile ? (PsiFile) element : element.getContainingFile();
+    if (!(file instanceof PsiJavaFile)) {
+      return false;
+    }
+
+    return getOrCreateCache(erraiFileKey, file, new CacheProvider<ErraiFileCacheHolder>() {
+      @Override
+      public ErraiFileCacheHolder provide() {
+        final PsiFile originalFile = file.getOriginalFile();
+        return new ErraiFileCacheHolder(originalFile.getModificationStamp(),
+            CharArrayUtil.indexOf(originalFile.getViewProvider().getContents(), ERRAI_PACKAGE, 0) != -1);
+      }
+
+      @Override
+      public boolean isCacheValid(ErraiFileCacheHolder holder) {
+        return holder.getTime() == file.getOriginalFile().getModificationStamp();
+      }
+    }).isErraiFile();
+  }
+
   public static long getLastUpdate(PsiElement element) {
     try {
       final PsiClass topLevelClass = PsiUtil.getTopLevelClass(element);